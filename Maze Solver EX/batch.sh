@@ -0,0 +1 @@
+java --class-path ./bin MazeBatchSolver "$@"
@@ -0,0 +1,6 @@
+# Compiles and runs the JMH benchmarks with the GC profiler, extra arguments are passed on to JMH,
+# e.g. "sh bench.sh SolveBenchmark -p size=1000".
+# JMH_HOME must point to a directory holding jmh-core, jmh-generator-annprocess, jopt-simple and commons-math3.
+rm -rf ./bench/bin
+javac -implicit:class -d ./bench/bin -cp "$JMH_HOME/*" --source-path ./src:./bench/src $(find ./bench/src -name "*.java")
+java -cp "./bench/bin:$JMH_HOME/*" org.openjdk.jmh.Main -prof gc "$@"
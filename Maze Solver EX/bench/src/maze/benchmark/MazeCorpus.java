@@ -0,0 +1,43 @@
+package maze.benchmark;
+
+import maze.generation.RecursiveBacktrackerGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+
+/**
+ * Class providing the mazes the benchmarks run on. Every maze is a perfect maze carved by a seeded
+ * recursive backtracker, written once to the temporary directory and reused by later trials
+ */
+public class MazeCorpus {
+
+    /**
+     * The seed of every generated maze, so all runs measure the same corpus
+     */
+    private static final long SEED = 20201017L;
+
+    /**
+     * Empty constructor
+     */
+    private MazeCorpus() {}
+
+    /**
+     * A method responsible for returning the 'txt' file of a square maze, generating it if needed
+     * @param size      The number of rows and columns, rounded up to an odd number
+     * @throws IOException when the maze cannot be written
+     * @return          the path of the maze file
+     */
+    public static synchronized Path mazeFile(int size) throws IOException {
+        int side = size | 1;
+        Path file = Paths.get(System.getProperty("java.io.tmpdir"), "maze-corpus-" + side + "-" + SEED + ".txt");
+        if (!Files.exists(file)) {
+            Path partial = Files.createTempFile("maze-corpus", ".txt");
+            new RecursiveBacktrackerGenerator(side, side, SEED).writeTxt(partial.toString());
+            Files.move(partial, file);
+        }
+        return file;
+    }
+}
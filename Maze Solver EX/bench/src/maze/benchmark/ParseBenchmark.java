@@ -0,0 +1,41 @@
+package maze.benchmark;
+
+import maze.Maze;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Benchmark of loading a maze from its 'txt' file
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ParseBenchmark {
+
+    /**
+     * The number of rows and columns of the maze
+     */
+    @Param({"10", "100", "1000", "4000"})
+    public int size;
+
+    /**
+     * The path of the maze file
+     */
+    private String path;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        path = MazeCorpus.mazeFile(size).toString();
+    }
+
+    @Benchmark
+    public Maze fromTxt() throws IOException {
+        return Maze.fromTxt(path);
+    }
+}
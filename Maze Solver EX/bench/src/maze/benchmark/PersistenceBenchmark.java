@@ -0,0 +1,82 @@
+package maze.benchmark;
+
+import maze.Maze;
+import maze.routing.RouteFinder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Benchmark of saving a solved route finder and loading it back, for every maze-solving mode since every engine
+ * writes its own search state. Resuming loads a route finder stopped halfway and takes one step, which is when the
+ * engine is restored from the stored state
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PersistenceBenchmark {
+
+    /**
+     * The number of rows and columns of the maze
+     */
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    /**
+     * The maze-solving mode, see the constants of {@link RouteFinder}
+     */
+    @Param({"0", "1", "2", "3", "4", "5", "6"})
+    public int mode;
+
+    /**
+     * The finder to be saved, and the files the benchmarks save to, load from and resume from
+     */
+    private RouteFinder finder;
+    private Path save_target;
+    private Path load_source;
+    private Path resume_source;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Maze maze = Maze.fromTxt(MazeCorpus.mazeFile(size).toString());
+        finder = new RouteFinder(maze, mode);
+        finder.solve();
+        save_target = Files.createTempFile("maze-bench-save", ".route");
+        load_source = Files.createTempFile("maze-bench-load", ".route");
+        resume_source = Files.createTempFile("maze-bench-resume", ".route");
+        finder.save(load_source.toString());
+
+        RouteFinder halfway = new RouteFinder(maze, mode);
+        halfway.step(finder.getSteps() / 2);
+        halfway.save(resume_source.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(save_target);
+        Files.deleteIfExists(load_source);
+        Files.deleteIfExists(resume_source);
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        finder.save(save_target.toString());
+    }
+
+    @Benchmark
+    public RouteFinder load() throws Exception {
+        return RouteFinder.load(load_source.toString());
+    }
+
+    @Benchmark
+    public boolean resume() throws Exception {
+        return RouteFinder.load(resume_source.toString()).step();
+    }
+}
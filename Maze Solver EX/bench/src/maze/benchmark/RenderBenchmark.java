@@ -0,0 +1,44 @@
+package maze.benchmark;
+
+import maze.Maze;
+import maze.routing.RouteFinder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Benchmark of {@link RouteFinder#toDefaultString()} on a solved maze, the string the GUI renders from.
+ * The sizes stop at 200 since larger boards take minutes per call
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RenderBenchmark {
+
+    /**
+     * The number of rows and columns of the maze
+     */
+    @Param({"10", "50", "200"})
+    public int size;
+
+    /**
+     * The finder whose board is rendered
+     */
+    private RouteFinder finder;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        finder = new RouteFinder(Maze.fromTxt(MazeCorpus.mazeFile(size).toString()), RouteFinder.BFS);
+        finder.solve();
+    }
+
+    @Benchmark
+    public String toDefaultString() {
+        return finder.toDefaultString();
+    }
+}
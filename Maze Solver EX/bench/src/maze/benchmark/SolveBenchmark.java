@@ -0,0 +1,53 @@
+package maze.benchmark;
+
+import maze.Maze;
+import maze.routing.RouteFinder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Benchmark of solving a maze from the entrance to the exit, for every maze-solving mode.
+ * The maze is loaded once per trial, so what it caches on first use is built during warmup and left out of the
+ * measurement: the corridor graph of the Corridor A* mode, see {@link Maze#getGraph()}, and the reachability check
+ * of every mode, see {@link Maze#isSolvable()}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SolveBenchmark {
+
+    /**
+     * The number of rows and columns of the maze
+     */
+    @Param({"10", "100", "1000", "4000"})
+    public int size;
+
+    /**
+     * The maze-solving mode, see the constants of {@link RouteFinder}
+     */
+    @Param({"0", "1", "2", "3", "4", "5", "6"})
+    public int mode;
+
+    /**
+     * The maze to be solved
+     */
+    private Maze maze;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        maze = Maze.fromTxt(MazeCorpus.mazeFile(size).toString());
+    }
+
+    @Benchmark
+    public int solve() {
+        RouteFinder finder = new RouteFinder(maze, mode);
+        finder.solve();
+        return finder.getRouteLength();
+    }
+}
@@ -0,0 +1,55 @@
+package maze.benchmark;
+
+import maze.Maze;
+import maze.routing.RouteFinder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Benchmark of a single {@link RouteFinder#step()}. Once the exit is reached the finder starts over,
+ * which is rare enough on the larger mazes not to matter. The corridor graph of the Corridor A* mode is cached by the
+ * maze, so it is built once per trial and never counted as part of a step
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StepBenchmark {
+
+    /**
+     * The number of rows and columns of the maze
+     */
+    @Param({"100", "1000", "4000"})
+    public int size;
+
+    /**
+     * The maze-solving mode, see the constants of {@link RouteFinder}
+     */
+    @Param({"0", "1", "2", "3", "4", "5", "6"})
+    public int mode;
+
+    /**
+     * The maze to be solved and the finder being stepped
+     */
+    private Maze maze;
+    private RouteFinder finder;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        maze = Maze.fromTxt(MazeCorpus.mazeFile(size).toString());
+        finder = new RouteFinder(maze, mode);
+    }
+
+    @Benchmark
+    public boolean step() {
+        if (finder.isFinished()) {
+            finder = new RouteFinder(maze, mode);
+        }
+        return finder.step();
+    }
+}
@@ -2,16 +2,14 @@ import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
 import javafx.scene.image.Image;
 import javafx.scene.layout.*;
-import javafx.scene.text.TextAlignment;
 import javafx.stage.Modality;
 import maze.*;
 import javafx.application.Application;
 import javafx.geometry.Insets;
-import javafx.scene.control.Label;
-import javafx.scene.shape.Rectangle;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.scene.Scene;
@@ -32,6 +30,8 @@ import maze.visualisation.ButtonWithFixedSize;
 import maze.visualisation.resources.helpers.FileLoadHelper;
 import maze.visualisation.resources.helpers.FileSaveHelper;
 import maze.visualisation.MazePaneInitializationHelper;
+import maze.visualisation.MazeCanvas;
+import maze.visualisation.SolverService;
 
 
 /**
@@ -95,18 +95,39 @@ public class MazeApplication extends Application {
      */
     int sceneHeight = 650;
 
+    /** Initialize the algorithm mode, A* == 0, Dijkstra == 1，DFS == 2， BFS == 3, JPS == 4, Bidirectional BFS == 5, Corridor A* == 6 */
+    int mode = 0;
+
+    /** Initialize whether the dead ends of a loaded maze are filled before solving */
+    boolean fill_dead_ends = false;
+
     /**
-     * Initialize the tile size for initial calculation in maze visualization
+     * The pane used for displaying the notification faces
      */
-    int tileSize = 30;
+    GridPane maze_pane = new GridPane();
 
-    /** Initialize the algorithm mode, A* == 0, Dijkstra == 1，DFS == 2， BFS == 3 */
-    int mode = 0;
+    /**
+     * The canvas used for maze visualization
+     */
+    MazeCanvas maze_canvas = new MazeCanvas();
 
     /**
-     * The pane used for maze visualization
+     * The container holding either the notification faces or the maze canvas
      */
-    GridPane maze_pane = new GridPane();
+    StackPane maze_holder = new StackPane(maze_pane);
+
+    /**
+     * The service solving the maze in the background, null until a maze is loaded
+     */
+    SolverService solver = null;
+
+    /**
+     * The speeds offered for playing, in steps per second
+     */
+    static final double[] SPEEDS = {1, 10, 100, 1000, 10000};
+
+    /** Initialize the playing speed, in steps per second */
+    double speed = 10;
 
     /**
      * Standard start method of a JavaFX Application
@@ -146,6 +167,19 @@ public class MazeApplication extends Application {
         Button stepButton = new ButtonWithFixedSize(" Step up ");
 
 
+        // create a button that will keep stepping in the background
+        Button playButton = new ButtonWithFixedSize("  Play  ");
+        // create a button that will stop the background stepping
+        Button pauseButton = new ButtonWithFixedSize(" Pause ");
+        // create a button that will solve the maze as fast as possible
+        Button runButton = new ButtonWithFixedSize("Run to end");
+        // create a selector for the playing speed
+        ComboBox<String> speedBox = new ComboBox<String>(FXCollections.observableArrayList(
+                "1 step/s", "10 steps/s", "100 steps/s", "1000 steps/s", "10000 steps/s"));
+        speedBox.getSelectionModel().select(1);
+        speedBox.setEditable(false);
+
+
         // create and configure a horizontal container to hold the buttons
         HBox buttonBox = new HBox(20);
         buttonBox.setAlignment(CENTER);
@@ -153,13 +187,18 @@ public class MazeApplication extends Application {
         // add the buttons to the horizontal container
         buttonBox.getChildren().addAll(loadMapButton, loadRouteButton, saveRouteButton, stepButton);
 
+        // create and configure a horizontal container to hold the playing controls
+        HBox playBox = new HBox(20);
+        playBox.setAlignment(CENTER);
+        playBox.getChildren().addAll(playButton, pauseButton, runButton, speedBox);
+
         // create and configure a vertical container to hold the button box
         VBox root = new VBox(20);
         root.setBackground(Background.EMPTY);
         root.setAlignment(CENTER);
 
         //add the button box and the face group to the vertical container
-        root.getChildren().addAll(caption, maze_pane, buttonBox);
+        root.getChildren().addAll(caption, maze_holder, buttonBox, playBox);
 
         // create and configure a new scene
         main_scene = new Scene(root, 650, 650, Color.rgb(50, 50, 50));
@@ -206,6 +245,25 @@ public class MazeApplication extends Application {
            handleMazeStep()
         );
 
+        // supply the code that is executed when playing, pausing and running to the end
+        playButton.setOnAction(e ->
+            handleMazePlay(speed)
+        );
+        pauseButton.setOnAction(e ->
+            handleMazePause()
+        );
+        runButton.setOnAction(e ->
+            handleMazePlay(SolverService.UNLIMITED)
+        );
+
+        // supply the code that is executed when changing the playing speed
+        speedBox.getSelectionModel().selectedIndexProperty().addListener((e, old_index, new_index) -> {
+            speed = SPEEDS[new_index.intValue()];
+            if (solver != null && solver.isRunning()) {
+                solver.setSpeed(speed);
+            }
+        });
+
         // add the scene to the stage, then set the title
         main_stage.setScene(main_scene);
         main_stage.setTitle("Maze Solver EX");
@@ -226,7 +284,7 @@ public class MazeApplication extends Application {
 
     /**
      * A method responsible for holding the logic and exception handling
-     * when reading the maze from the txt file
+     * when reading the maze from the txt or the binary file
      */
     public void handleMazeLoadFromTxt() {
         try{
@@ -234,13 +292,21 @@ public class MazeApplication extends Application {
             caption.setText("Loading Map...\n");
 
             // return the ABSOLUTE path for failsafe reason
-            path = FileLoadHelper.load(main_stage, new FileChooser.ExtensionFilter("TXT files (*.txt)", "*.txt"));
+            path = FileLoadHelper.load(main_stage,
+                    new FileChooser.ExtensionFilter("Maze files (*.txt, *.mazeb)", "*.txt", "*" + Maze.BINARY_EXTENSION),
+                    new FileChooser.ExtensionFilter("TXT files (*.txt)", "*.txt"),
+                    new FileChooser.ExtensionFilter("Binary maze files (*.mazeb)", "*" + Maze.BINARY_EXTENSION));
 
             // then try to load the maze according to the dir user provided
             try{
                 System.out.println(mode);
-                new_maze = Maze.fromTxt(path);             // instantiate the maze
+                handleMazePause();
+                new_maze = Maze.fromFile(path);            // instantiate the maze, txt or binary
                 caption.setText("Successfully loaded maze.\n"); //renew the notification when finished
+                if (fill_dead_ends) {
+                    new_maze = new_maze.fillDeadEnds();     // filled cells are no longer searched
+                    caption.setText("Successfully loaded maze, " + new_maze.getFilledCount() + " dead-end tiles filled.\n");
+                }
                 new_finder = new RouteFinder(new_maze, mode);     // instantiate the finder
                 isFinished = false;                        // initialize finished state
                 isInitialized = true;                      // initialize the maze initialization state
@@ -264,6 +330,11 @@ public class MazeApplication extends Application {
                 handleMazePaneInitialization(1);
                 caption.setText("The file selected is invalid.\nIt may contains illegal characters.");
             }
+            catch (NoRouteFoundException e) {
+                // the maze is checked for a route as it is loaded, before any step
+                handleMazePaneInitialization(1);
+                caption.setText("The exit cannot be reached from the entrance.\n      Please select a solvable maze.");
+            }
             catch (FileNotFoundException e){
                 handleMazePaneInitialization(0);
                 caption.setText("Unable to locate the file. " +
@@ -298,7 +369,7 @@ public class MazeApplication extends Application {
 
 
         ObservableList<String> AlgorithmList =
-                FXCollections.observableArrayList(Arrays.asList("A-Star Algorithm", "Dijkstra Algorithm", "DFS Algorithm", "BFS Algorithm"));
+                FXCollections.observableArrayList(Arrays.asList("A-Star Algorithm", "Dijkstra Algorithm", "DFS Algorithm", "BFS Algorithm", "JPS Algorithm", "Bidirectional BFS", "Corridor A-Star"));
         ComboBox<String> comboBox = new ComboBox<String>(AlgorithmList);
         comboBox.getSelectionModel().select(0);
         comboBox.setEditable(false);
@@ -321,9 +392,15 @@ public class MazeApplication extends Application {
         selectionBox.setAlignment(CENTER);
         selectionBox.getChildren().addAll(comboBox, loadMapFromTxtButton);
 
+        // dead ends are filled right after loading, and shown in their own colour
+        CheckBox fillCheckBox = new CheckBox("Fill dead ends before solving");
+        fillCheckBox.setTextFill(Color.rgb(216, 216, 216));
+        fillCheckBox.setSelected(fill_dead_ends);
+        fillCheckBox.selectedProperty().addListener((observable, old_value, new_value) -> fill_dead_ends = new_value);
+
         VBox dialogVbox = new VBox(20);
         dialogVbox.setAlignment(CENTER);
-        dialogVbox.getChildren().addAll(infoLabel, selectionBox);
+        dialogVbox.getChildren().addAll(infoLabel, selectionBox, fillCheckBox);
         dialogVbox.setBackground(Background.EMPTY);
 
         dialog_stage = new Stage();
@@ -331,9 +408,9 @@ public class MazeApplication extends Application {
         dialog_stage.initOwner(main_stage);
 
 
-        dialog_scene = new Scene(dialogVbox, 300, 150, Color.rgb(50, 50, 50));
+        dialog_scene = new Scene(dialogVbox, 300, 190, Color.rgb(50, 50, 50));
         dialog_scene.getStylesheets().add("file:src/maze/visualisation/resources/css/style.css");
-        dialog_stage.setMinHeight(150);
+        dialog_stage.setMinHeight(190);
         dialog_stage.setMinWidth(320);
 
         dialog_stage.setScene(dialog_scene);
@@ -357,6 +434,7 @@ public class MazeApplication extends Application {
 
             // then try to load the maze according to the dir user provided
             try{
+                handleMazePause();
                 new_finder = RouteFinder.load(path);        // instantiate the finder
                 new_maze = new_finder.getMaze();            // instantiate the maze
                 caption.setText("Successfully loaded route.\n"); //renew the notification when finished
@@ -408,12 +486,13 @@ public class MazeApplication extends Application {
      */
     public void handleMazeSaveToSerializedFile() {
         if (isInitialized) {
+            handleMazePause();
             try{
                 // set the notification info
                 caption.setText("Saving Map...\n");
 
                 // return the ABSOLUTE path for failsafe reason
-                path = FileSaveHelper.save(main_stage, new FileChooser.ExtensionFilter("Serialized Route files(*.route)", "*.route"));
+                path = FileSaveHelper.save(main_stage, new FileChooser.ExtensionFilter("Route files(*.route)", "*.route"));
 
                 // then save the file
                 try{
@@ -445,10 +524,11 @@ public class MazeApplication extends Application {
             handleMazePaneInitialization(1);
             caption.setText("Cannot step up. \nPlease load in a maze first.");
         }else if (!isFinished && isInitialized) {
+            handleMazePause();
             try{
                 new_finder.step();
                 caption.setText("Stepping...\n");
-                handleMazeVisualization();
+                handleMazeRecolouring();
                 if(new_finder.isFinished()){
                     isFinished = true;
                     caption.setText("The maze has been solved. \nTotal steps: " + new_finder.getRoute().size());
@@ -460,12 +540,15 @@ public class MazeApplication extends Application {
                 // but when it did happened, let's just pretend nothing happened.
             }
             catch (NoRouteFoundException e) {
-                tileSize = 30;
                 main_stage.setMinHeight(650);
                 main_stage.setMinWidth(650);
                 handleMazePaneInitialization(1);
                 caption.setText("The algorithm cannot solve this maze.\n");
             }
+            catch (InvalidMazeException e) {
+                handleMazePaneInitialization(1);
+                caption.setText(solverFailure(e));
+            }
         }
         else {
             caption.setText("Cannot step up more. \nThe maze has been solved in "
@@ -474,59 +557,95 @@ public class MazeApplication extends Application {
     }
 
     /**
-     * A method responsible for converting the string reported from the route finder to one single string
-     * that is used in maze visualization processing
+     * A method responsible for describing a failure of the solver other than an unsolvable maze
+     * @param e     The exception thrown by a step
+     * @return      the caption, carrying the text of the exception
+     */
+    private static String solverFailure(Exception e) {
+        String reason = (e.getMessage() == null) ? e.getClass().getSimpleName() : e.getMessage().trim();
+        return "The solver failed.\n" + reason;
+    }
+
+    /**
+     * A method responsible for handing the maze and the route finder over to the canvas, which draws them in full.
+     * From then on every step only redraws the tiles it changed, see {@link #handleMazeRecolouring()}
      */
     public void handleMazeVisualization() {
         isNotifying = false;
-        int x_len = new_maze.getTiles().get(0).size();
-        int y_len = new_maze.getTiles().size();
-        maze_pane.getChildren().clear();
-
-        // set tile color according to its type
-        for (int row=0; row < y_len; row++){
-            for (int col=0; col<x_len; col++){
-                Rectangle r = new Rectangle();   // initialize the rectangle
-                r.setWidth(tileSize);
-                r.setHeight(tileSize);
-                if (new_finder.toDefaultString().charAt(col + row*x_len + row) == '#'){
-                    r.setFill(Color.LIGHTSALMON);   // wall
-                }
-                else if (new_finder.toDefaultString().charAt(col + row*x_len + row) == '.'){
-                    r.setFill(Color.LAVENDERBLUSH); // corridor
-                }
-                else if (new_maze.getTiles().get(row).get(col).toString().equals("x")){
-                    r.setFill(Color.LIGHTGREEN);    // exit
-                }
-                else if(new_finder.toDefaultString().charAt(col + row*x_len + row) == '-'){
-                    r.setFill(Color.GREY);          // past route
-                }
-                else{
-                    r.setFill(Color.CORAL);         // valid route and entrance
-                }
-                if (new_finder.toDefaultString().charAt(col + row*x_len + row) == '*') {
-                    r.setFill(Color.RED);           //override entrance and exit
-                }
+        // every route finder gets its own solver, the frames of the previous one are ignored
+        RouteFinder finder = new_finder;
+        solver = new SolverService(finder, () -> handleSolverFrame(finder));
+        // everything is drawn from scratch, so the changes collected so far are of no use
+        new_finder.setChangeTracking(true);
+        maze_holder.getChildren().setAll(maze_canvas);
+        maze_canvas.setMaze(new_maze, new_finder);
+    }
 
-                maze_pane.add(r, col+1, row);
-            }
+    /**
+     * A method responsible for redrawing the tiles changed since the last step, leaving every other tile untouched
+     */
+    public void handleMazeRecolouring() {
+        maze_canvas.refresh();
+    }
+
+    /**
+     * A method responsible for holding the logic when playing, i.e. stepping through the maze in the background
+     * @param steps_per_second  The number of steps per second, {@link SolverService#UNLIMITED} to run to the end
+     */
+    public void handleMazePlay(double steps_per_second) {
+        if (!isInitialized || solver == null) {
+            handleMazePaneInitialization(1);
+            caption.setText("Cannot play. \nPlease load in a maze first.");
         }
+        else if (isFinished || isNotifying) {
+            caption.setText("Cannot play any more. \nPlease load in another maze.");
+        }
+        else {
+            solver.play(steps_per_second);
+            caption.setText(steps_per_second == SolverService.UNLIMITED ? "Running to the end...\n" : "Playing...\n");
+        }
+    }
+
+    /**
+     * A method responsible for pausing the background stepping, the route finder can be used right after
+     */
+    public void handleMazePause() {
+        if (solver != null && solver.isRunning()) {
+            solver.pause();
+            caption.setText("Paused after " + new_finder.getSteps() + " steps.\n");
+        }
+    }
 
-        // render the row/column indicators
-        for (int i=0; i<y_len; i++) {       // handle column indicator
-            Label tmp_caption = new Label(String.valueOf(y_len - i - 1));
-            tmp_caption.setPrefWidth(20);
-            tmp_caption.setTextFill(Color.LAVENDERBLUSH);
-            tmp_caption.setAlignment(CENTER);
-            maze_pane.add(tmp_caption, 0, i);
+    /**
+     * A method responsible for drawing the state published by the background solver, at most once per frame
+     * @param finder    The route finder the solver steps, frames of a replaced route finder are ignored
+     */
+    public void handleSolverFrame(RouteFinder finder) {
+        if (finder != new_finder || isNotifying) {
+            return;
+        }
+        handleMazeRecolouring();
+        Exception failure = solver.getFailure();
+        if (failure instanceof NoRouteFoundException) {
+            main_stage.setMinHeight(650);
+            main_stage.setMinWidth(650);
+            handleMazePaneInitialization(1);
+            caption.setText("The algorithm cannot solve this maze.\n");
+        }
+        else if (failure != null) {
+            handleMazePaneInitialization(1);
+            caption.setText(solverFailure(failure));
         }
-        for (int i=0; i<x_len; i++) {     // handle row indicator
-            Label tmp_caption_1 = new Label(String.valueOf(i));
-            tmp_caption_1.setPrefWidth(tileSize);
-            tmp_caption_1.setTextFill(Color.LAVENDERBLUSH);
-            tmp_caption_1.setAlignment(CENTER);
-            tmp_caption_1.setTextAlignment(TextAlignment.CENTER);
-            maze_pane.add(tmp_caption_1, 1+i,x_len+1);
+        else if (solver.isRunning()) {
+            caption.setText("Solving... " + finder.getSteps() + " steps taken.\n");
+        }
+        else {
+            synchronized (finder) {
+                if (finder.isFinished()) {
+                    isFinished = true;
+                    caption.setText("The maze has been solved. \nTotal steps: " + finder.getRouteLength());
+                }
+            }
         }
     }
 
@@ -540,36 +659,13 @@ public class MazeApplication extends Application {
         maze_pane.getColumnConstraints().clear();
         maze_pane.getRowConstraints().clear();
         maze_pane = MazePaneInitializationHelper.setPane(flag, maze_pane);
+        maze_holder.getChildren().setAll(maze_pane);
     }
 
     /**
-     * A method responsible for calculating the new tile size when the window is resized
+     * A method responsible for fitting the maze canvas into the window when it is resized, which only needs a redraw
      */
     public void handleMazeResize() {
-        int maxTileWidth = (sceneWidth - 150) / (new_maze.getTiles().get(0).size());
-        int maxTileHeight = (sceneHeight - 200) / new_maze.getTiles().size();
-        int newTileSize = (Math.min(maxTileWidth, maxTileHeight));
-        int x_len = new_maze.getTiles().get(0).size();
-        int y_len = new_maze.getTiles().size();
-        if(tileSize == newTileSize) {
-            return;
-        }
-        tileSize = newTileSize;
-
-        // set row/column constraints for failsafe reason
-        maze_pane.getColumnConstraints().clear();
-        maze_pane.getRowConstraints().clear();
-
-        maze_pane.getColumnConstraints().add(new ColumnConstraints(20));
-        for (int i=0; i<x_len; i++) {
-            maze_pane.getColumnConstraints().add(new ColumnConstraints(tileSize));
-        }
-        for (int i=0; i<y_len; i++) {
-            maze_pane.getRowConstraints().add(new RowConstraints(tileSize));
-        }
-
-        if (!isNotifying) {
-            handleMazeVisualization();
-        }
+        maze_canvas.setViewSize(sceneWidth - 60, sceneHeight - 210);
     }
 }
@@ -0,0 +1,343 @@
+import maze.InvalidMazeException;
+import maze.Maze;
+import maze.routing.NoRouteFoundException;
+import maze.routing.RouteFinder;
+import maze.routing.RouteRace;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+/**
+ * The headless entry point for solving whole directories of mazes, e.g. on build servers.
+ * It only depends on the maze packages, so no JavaFX class is ever loaded
+ * @author Yi Lu
+ * @version 0.9.1
+ */
+public class MazeBatchSolver {
+
+    /**
+     * The names of the maze-solving modes, indexed by mode, and the name of the race between all of them
+     */
+    private static final List<String> MODE_NAMES = Arrays.asList("astar", "dijkstra", "dfs", "bfs", "jps", "bidirectional", "corridor");
+    private static final String RACE = "race";
+
+    /**
+     * The usage notice printed on invalid arguments
+     */
+    private static final String USAGE = "Usage: MazeBatchSolver [--mode astar|dijkstra|dfs|bfs|jps|bidirectional|corridor|race]\n" +
+            "                       [--threads n] [--format csv|json] [--fill-dead-ends] <directory | glob | file>...";
+
+    /**
+     * The stream every result line is written to
+     */
+    private final PrintStream out;
+
+    /**
+     * The chosen mode name, and whether results are written as json lines instead of csv
+     */
+    private final String mode_name;
+    private final boolean json;
+
+    /**
+     * Preserving whether the dead ends of every maze are filled before solving it
+     */
+    private final boolean fill;
+
+    /**
+     * Preserving the pool every mode of a race runs on, shared by the mazes raced at once, null unless racing
+     */
+    private final ExecutorService race_pool;
+
+    /**
+     * Basic constructor
+     * @param o     The stream every result line is written to
+     * @param m     The mode name
+     * @param j     Whether results are written as json lines
+     * @param f     Whether dead ends are filled before solving
+     * @param r     The pool the modes of a race run on, null unless racing
+     */
+    private MazeBatchSolver(PrintStream o, String m, boolean j, boolean f, ExecutorService r) {
+        out = o;
+        mode_name = m;
+        json = j;
+        fill = f;
+        race_pool = r;
+    }
+
+    /**
+     * main container for batch solving
+     * @param args     the options, followed by directories, glob patterns or files of 'txt' or '.mazeb' mazes
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String mode_name = "astar";
+        String format = "csv";
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean fill = false;
+        List<String> targets = new ArrayList<>();
+
+        //read in the options
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--mode":
+                        mode_name = args[++i].toLowerCase(Locale.ROOT);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--format":
+                        format = args[++i].toLowerCase(Locale.ROOT);
+                        break;
+                    case "--fill-dead-ends":
+                        fill = true;
+                        break;
+                    default:
+                        targets.add(args[i]);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            targets.clear();
+        }
+        if (targets.isEmpty() || threads < 1 || !(format.equals("csv") || format.equals("json"))
+                || !(MODE_NAMES.contains(mode_name) || mode_name.equals(RACE))) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        List<Path> files = new ArrayList<>();
+        for (String target : targets) {
+            files.addAll(collect(target));
+        }
+
+        //a race solves with every mode at once, so the threads go to the modes and the mazes raced at once only wait
+        //for them: the solving threads stay within the given number either way
+        ExecutorService race_pool = null;
+        int maze_threads = threads;
+        if (mode_name.equals(RACE)) {
+            race_pool = Executors.newFixedThreadPool(threads);
+            maze_threads = Math.max(1, threads / MODE_NAMES.size());
+        }
+
+        MazeBatchSolver solver = new MazeBatchSolver(System.out, mode_name, format.equals("json"), fill, race_pool);
+        if (!solver.json) {
+            System.out.println("file,mode,status,route_length,expansions,parse_ms,solve_ms,message");
+        }
+
+        //solve the mazes on a bounded pool, every result is written as soon as it is known
+        ExecutorService pool = Executors.newFixedThreadPool(maze_threads);
+        for (Path file : files) {
+            pool.execute(() -> solver.solve(file));
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        if (race_pool != null) {
+            race_pool.shutdown();
+        }
+    }
+
+    /**
+     * A method responsible for turning a command line target into the maze files it names
+     * @param target    A directory, a glob pattern or a single file
+     * @throws IOException when a directory cannot be listed
+     * @return          the files, sorted by path
+     */
+    private static List<Path> collect(String target) throws IOException {
+        Path path = Paths.get(target);
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> stream = Files.list(path)) {
+                return stream.filter(p -> (p.toString().endsWith(".txt") || p.toString().endsWith(Maze.BINARY_EXTENSION))
+                        && Files.isRegularFile(p))
+                        .sorted().collect(Collectors.toList());
+            }
+        }
+        int wildcard = indexOfWildcard(target);
+        if (wildcard == -1) {
+            return List.of(path);
+        }
+
+        //walk from the deepest directory before the first wildcard, matching the pattern against every file
+        int separator = Math.max(target.lastIndexOf('/', wildcard), target.lastIndexOf('\\', wildcard));
+        Path base = Paths.get(separator == -1 ? "." : target.substring(0, separator + 1));
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + target);
+        try (Stream<Path> stream = Files.walk(base)) {
+            return stream.filter(p -> Files.isRegularFile(p) && matcher.matches(separator == -1 ? base.relativize(p) : p))
+                    .sorted().collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * A method responsible for locating the first glob wildcard of a target
+     * @param target    The command line target
+     * @return          the index of the first wildcard, or -1 if there is none
+     */
+    private static int indexOfWildcard(String target) {
+        for (int i = 0; i < target.length(); i++) {
+            if ("*?[{".indexOf(target.charAt(i)) != -1) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A method responsible for loading and solving one maze, then writing its result line.
+     * Any unexpected failure is written as an error line, so every file gets its line
+     * @param file      The 'txt' or '.mazeb' file of the maze
+     */
+    private void solve(Path file) {
+        long start = System.nanoTime();
+        Maze maze;
+        try {
+            maze = Maze.fromFile(file.toString());
+            if (fill) {
+                maze = maze.fillDeadEnds();     // counted as parsing
+            }
+        } catch (InvalidMazeException e) {
+            report(file, "invalid", -1, -1, System.nanoTime() - start, 0, null);
+            return;
+        } catch (IOException e) {
+            report(file, "unreadable", -1, -1, System.nanoTime() - start, 0, null);
+            return;
+        } catch (RuntimeException e) {
+            report(file, "error", -1, -1, System.nanoTime() - start, 0, describe(e));
+            return;
+        }
+        long parsed = System.nanoTime();
+
+        try {
+            RouteFinder finder;
+            int expansions;
+            if (mode_name.equals(RACE)) {
+                RouteRace.Result result = RouteRace.race(maze, race_pool);
+                finder = result.getWinner();
+                expansions = 0;
+                for (RouteRace.Entry entry : result.getEntries()) {
+                    expansions += entry.getExpansions();
+                }
+                if (!result.isSolved()) {
+                    throw new NoRouteFoundException();
+                }
+            } else {
+                finder = new RouteFinder(maze, MODE_NAMES.indexOf(mode_name));
+                finder.solve();
+                expansions = finder.getExpansions();
+            }
+            report(file, "solved", finder.getRouteLength(), expansions, parsed - start, System.nanoTime() - parsed, null);
+        } catch (NoRouteFoundException e) {
+            report(file, "no_route", -1, -1, parsed - start, System.nanoTime() - parsed, null);
+        } catch (RuntimeException e) {
+            report(file, "error", -1, -1, parsed - start, System.nanoTime() - parsed, describe(e));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A method responsible for describing an unexpected failure, with the failure of a race mode behind it if any
+     * @param e     The exception
+     * @return      the text of the exception
+     */
+    private static String describe(Throwable e) {
+        String text = (e.getMessage() == null) ? e.getClass().getSimpleName() : e.getMessage().trim();
+        return (e.getCause() == null) ? text : text + " " + describe(e.getCause());
+    }
+
+    /**
+     * A method responsible for writing the result line of one maze
+     * @param file          The file of the maze
+     * @param status        solved, no_route, invalid, unreadable or error
+     * @param route_length  The number of cells on the route, -1 if there is none
+     * @param expansions    The number of expansions, summed over every mode in a race, -1 if unknown
+     * @param parse_nanos   The time spent loading the maze
+     * @param solve_nanos   The time spent solving the maze
+     * @param message       The text of the failure of an error line, null otherwise
+     */
+    private void report(Path file, String status, int route_length, int expansions, long parse_nanos, long solve_nanos,
+                        String message) {
+        String line;
+        if (json) {
+            line = String.format(Locale.ROOT, "{\"file\":%s,\"mode\":\"%s\",\"status\":\"%s\",\"route_length\":%d," +
+                            "\"expansions\":%d,\"parse_ms\":%.3f,\"solve_ms\":%.3f,\"message\":%s}",
+                    jsonString(file.toString()), mode_name, status, route_length,
+                    expansions, parse_nanos / 1e6, solve_nanos / 1e6, message == null ? "null" : jsonString(message));
+        } else {
+            String name = csvField(file.toString());
+            String text = (message == null) ? "" : csvField(message);
+            line = String.format(Locale.ROOT, "%s,%s,%s,%d,%d,%.3f,%.3f,%s", name, mode_name, status, route_length,
+                    expansions, parse_nanos / 1e6, solve_nanos / 1e6, text);
+        }
+        synchronized (out) {
+            out.println(line);
+        }
+    }
+
+    /**
+     * A method responsible for writing a string as a json string, every control character escaped
+     * @param value     The string
+     * @return          the json string, quotes included
+     */
+    private static String jsonString(String value) {
+        StringBuilder str_return = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    str_return.append("\\\"");
+                    break;
+                case '\\':
+                    str_return.append("\\\\");
+                    break;
+                case '\b':
+                    str_return.append("\\b");
+                    break;
+                case '\f':
+                    str_return.append("\\f");
+                    break;
+                case '\n':
+                    str_return.append("\\n");
+                    break;
+                case '\r':
+                    str_return.append("\\r");
+                    break;
+                case '\t':
+                    str_return.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        str_return.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                    } else {
+                        str_return.append(c);
+                    }
+            }
+        }
+        return str_return.append('"').toString();
+    }
+
+    /**
+     * A method responsible for writing a string as a csv field, quoted when it holds a separator, a quote
+     * or a line break
+     * @param value     The string
+     * @return          the csv field
+     */
+    private static String csvField(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
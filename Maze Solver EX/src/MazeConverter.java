@@ -0,0 +1,49 @@
+import maze.InvalidMazeException;
+import maze.Maze;
+
+import java.io.IOException;
+
+
+/**
+ * The headless entry point for converting mazes between the 'txt' and the '.mazeb' formats.
+ * The format of every file is chosen by its extension
+ * @author Yi Lu
+ * @version 0.9.1
+ */
+public class MazeConverter {
+
+    /**
+     * The usage notice printed on invalid arguments
+     */
+    private static final String USAGE = "Usage: MazeConverter <source.txt|source.mazeb> <target.txt|target.mazeb>";
+
+    /**
+     * Empty constructor
+     */
+    private MazeConverter() {}
+
+    /**
+     * main container for converting one maze
+     * @param args     the source file and the target file
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        try {
+            Maze maze = Maze.fromFile(args[0]);
+            if (args[1].toLowerCase().endsWith(Maze.BINARY_EXTENSION)) {
+                maze.toBinary(args[1]);
+            } else {
+                maze.toTxt(args[1]);
+            }
+        } catch (InvalidMazeException e) {
+            System.err.println(args[0] + ": invalid maze" + e.getMessage());
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.println(args[0] + ": " + String.valueOf(e.getMessage()).trim());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package maze;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.CRC32C;
+
+
+/**
+ * Class providing the '.mazeb' binary format: a 32-byte header followed by the packed grid exactly as {@link Maze}
+ * keeps it, so that a maze can be loaded by mapping the body of the file instead of decoding it.
+ * The header holds, big-endian: the magic "MAZB", the version and the flags (2 bytes each), the width, the height,
+ * the entrance index, the exit index, 4 reserved bytes and a CRC-32C of the rest of the header and the body
+ */
+class BinaryFormat {
+
+    /**
+     * The magic number every file starts with, "MAZB"
+     */
+    static final int MAGIC = 0x4D415A42;
+
+    /**
+     * The version written by this class, files of other versions are rejected
+     */
+    static final short VERSION = 1;
+
+    /**
+     * The flag set when the maze contains mud or water
+     */
+    static final short FLAG_WEIGHTED = 1;
+
+    /**
+     * The size of the header, the body starts right after it
+     */
+    static final int HEADER_SIZE = 32;
+
+    /**
+     * The position of the checksum in the header
+     */
+    private static final int CHECKSUM_OFFSET = 28;
+
+    /**
+     * The number of body bytes checked at a time, small enough for the cache to hold them for both checks
+     */
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    /**
+     * The high bit of every 2-bit cell in a long, set only for mud and water
+     */
+    private static final long HIGH_BITS = 0xAAAAAAAAAAAAAAAAL;
+
+    /**
+     * Empty constructor
+     */
+    private BinaryFormat() {}
+
+    /**
+     * A method responsible for reading a maze, the body of the file becomes the grid of the maze without being copied
+     * @param channel   The channel of the file
+     * @param maze      The maze to store the grid, the shape, the entrance and the exit into
+     * @throws EOFException when the file is empty
+     * @throws InvalidMazeException when the file is not a valid maze of a supported version
+     * @throws IOException when the file cannot be read
+     */
+    static void read(FileChannel channel, Maze maze) throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            throw new EOFException("\nEmpty file!");
+        }
+        if (size < HEADER_SIZE) {
+            throw new InvalidMazeException("\nMaze Invalid!");
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining() && channel.read(header, header.position()) != -1) {
+            //keep reading until the header is complete
+        }
+        header.flip();
+        int body_length = bodyLength(header, size);
+        decode(header, channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, body_length), maze);
+    }
+
+    /**
+     * A method responsible for reading a maze from a complete file held in memory, the body is used without being copied
+     * @param image     The bytes of the file, from its position to its limit
+     * @param maze      The maze to store the grid, the shape, the entrance and the exit into
+     * @throws InvalidMazeException when the bytes are not a valid maze of a supported version
+     */
+    static void read(ByteBuffer image, Maze maze) {
+        if (image.remaining() < HEADER_SIZE) {
+            throw new InvalidMazeException("\nMaze Invalid!");
+        }
+        ByteBuffer header = image.slice().limit(HEADER_SIZE);
+        int body_length = bodyLength(header, image.remaining());
+        decode(header, image.slice().position(HEADER_SIZE).limit(HEADER_SIZE + body_length).slice(), maze);
+    }
+
+    /**
+     * A method responsible for checking the magic, the version and the size given by a header
+     * @param header    The header, positioned at its start
+     * @param size      The size of the whole file
+     * @throws InvalidMazeException when the header is invalid or does not match the size
+     * @return          The length of the body
+     */
+    private static int bodyLength(ByteBuffer header, long size) {
+        if (header.getInt(0) != MAGIC) {
+            throw new InvalidMazeException("\nMaze Invalid!");
+        }
+        if (header.getShort(4) != VERSION) {
+            throw new InvalidMazeException("\nUnsupported maze version!");
+        }
+        int width = header.getInt(8);
+        int height = header.getInt(12);
+        if (width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE
+                || size != HEADER_SIZE + (long) Maze.packedLength(width * height)) {
+            throw new InvalidMazeException("\nMaze Invalid!");
+        }
+        return Maze.packedLength(width * height);
+    }
+
+    /**
+     * A method responsible for verifying a header and a body, then storing them into a maze.
+     * The checksum only covers integrity, so the weighted flag is checked against the grid as well: a flag cleared
+     * over mud or water would let jump point search take routes which are not the cheapest
+     * @param header    The header, already checked by {@link #bodyLength(ByteBuffer, long)}
+     * @param body      The body
+     * @param maze      The maze to store the grid, the shape, the entrance and the exit into
+     * @throws InvalidMazeException when the checksum, the weighted flag, the entrance or the exit is wrong
+     */
+    private static void decode(ByteBuffer header, ByteBuffer body, Maze maze) {
+        int width = header.getInt(8);
+        int height = header.getInt(12);
+        int entrance = header.getInt(16);
+        int exit = header.getInt(20);
+        int cell_count = width * height;
+        boolean weighted = (header.getShort(6) & FLAG_WEIGHTED) != 0;
+        if (weighted != verify(header, body, cell_count)) {
+            throw new InvalidMazeException("\nMaze Invalid!");
+        }
+        if (entrance < 0 || entrance >= cell_count || exit < 0 || exit >= cell_count || entrance == exit) {
+            throw new InvalidMazeException("\nMaze Invalid!");
+        }
+        maze.load(width, height, body, entrance, exit, weighted);
+        if (maze.getCell(entrance) != Maze.CORRIDOR || maze.getCell(exit) != Maze.CORRIDOR) {
+            throw new InvalidMazeException("\nMaze Invalid!");
+        }
+    }
+
+    /**
+     * A method responsible for writing a maze
+     * @param maze      The maze to be written
+     * @param body      The packed grid of the maze
+     * @param channel   The channel to write the file to
+     * @throws IOException when the file cannot be written
+     */
+    static void write(Maze maze, ByteBuffer body, WritableByteChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putShort(VERSION);
+        header.putShort(maze.isUniformCost() ? 0 : FLAG_WEIGHTED);
+        header.putInt(maze.getWidth());
+        header.putInt(maze.getHeight());
+        header.putInt(maze.getEntranceIndex());
+        header.putInt(maze.getExitIndex());
+        header.putInt(0);
+        header.putInt(CHECKSUM_OFFSET, checksum(header, body));
+        header.position(0);
+        header.limit(HEADER_SIZE);
+
+        ByteBuffer content = body.duplicate();
+        content.position(0);
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        while (content.hasRemaining()) {
+            channel.write(content);
+        }
+    }
+
+    /**
+     * A method responsible for computing the checksum of a file
+     * @param header    The header, only the bytes before the checksum are used
+     * @param body      The body
+     * @return          The CRC-32C of the header and the body
+     */
+    private static int checksum(ByteBuffer header, ByteBuffer body) {
+        CRC32C crc = headerChecksum(header);
+        ByteBuffer content = body.duplicate();
+        content.position(0);
+        crc.update(content);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * A method responsible for verifying the checksum of a file, finding out on the same pass whether the grid holds
+     * mud or water: the body goes through in chunks, each one checked for both while it is still in the cache
+     * @param header        The header, only the bytes before the checksum are used
+     * @param body          The body
+     * @param cell_count    The number of cells of the grid, the bits after the last cell are not looked at
+     * @throws InvalidMazeException when the checksum is wrong
+     * @return              true if a cell of the grid is mud or water
+     */
+    private static boolean verify(ByteBuffer header, ByteBuffer body, int cell_count) {
+        CRC32C crc = headerChecksum(header);
+        int length = body.limit();
+        //the last byte may end with unused bits, it is checked on its own
+        int full = ((cell_count & 3) == 0) ? length : length - 1;
+        boolean weighted = false;
+        for (int from = 0; from < length; from += CHUNK_SIZE) {
+            int to = Math.min(length, from + CHUNK_SIZE);
+            ByteBuffer chunk = body.duplicate();
+            chunk.limit(to).position(from);
+            crc.update(chunk);
+            if (!weighted) {
+                int i = from;
+                for (int end = Math.min(to, full); i + Long.BYTES <= end; i += Long.BYTES) {
+                    if ((body.getLong(i) & HIGH_BITS) != 0) {
+                        weighted = true;
+                        break;
+                    }
+                }
+                for (int end = Math.min(to, full); !weighted && i < end; i++) {
+                    weighted = (body.get(i) & HIGH_BITS) != 0;
+                }
+            }
+        }
+        if (!weighted && full < length) {
+            int used = (1 << ((cell_count & 3) << 1)) - 1;
+            weighted = (body.get(full) & used & HIGH_BITS) != 0;
+        }
+        if ((int) crc.getValue() != header.getInt(CHECKSUM_OFFSET)) {
+            throw new InvalidMazeException("\nMaze file corrupted!");
+        }
+        return weighted;
+    }
+
+    /**
+     * A method responsible for starting the checksum of a file with its header
+     * @param header    The header, only the bytes before the checksum are used
+     * @return          The CRC-32C, holding the header so far
+     */
+    private static CRC32C headerChecksum(ByteBuffer header) {
+        CRC32C crc = new CRC32C();
+        ByteBuffer fields = header.duplicate();
+        fields.position(0).limit(CHECKSUM_OFFSET);
+        crc.update(fields);
+        return crc;
+    }
+}
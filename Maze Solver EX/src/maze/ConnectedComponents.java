@@ -0,0 +1,182 @@
+package maze;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+/**
+ * Class providing the connected components of the navigable cells of a maze, found by a union-find over the cells
+ * scanned row by row: every cell is joined to its open neighbours on the left and above. The roots are always the
+ * smallest cell of their component, and finding a root halves the path on the way.
+ * <p>
+ * The rows are split into bands labelled in parallel on the fork-join pool. Within a band every cell only joins
+ * cells of the same band, so the bands never touch each other's entries; the bands are then joined along their
+ * boundaries on the calling thread
+ */
+class ConnectedComponents {
+
+    /**
+     * The fewest rows of a band, so that joining the bands stays cheap next to labelling them
+     */
+    private static final int MIN_BAND_ROWS = 64;
+
+    /**
+     * Preserving the maze and its width
+     */
+    private final Maze maze;
+    private final int width;
+
+    /**
+     * Preserving the parent of every navigable cell, roots being their own parent, -1 for walls
+     */
+    private final int[] parent;
+
+    /**
+     * Basic constructor
+     * @param m     The maze
+     */
+    private ConnectedComponents(Maze m) {
+        maze = m;
+        width = m.getWidth();
+        parent = new int[m.getCellCount()];
+    }
+
+    /**
+     * A method responsible for labelling the connected components of a maze
+     * @param m             The maze
+     * @param band_count    The number of bands to be labelled in parallel, 1 to label on the calling thread
+     * @return              the components
+     */
+    static ConnectedComponents label(Maze m, int band_count) {
+        ConnectedComponents components = new ConnectedComponents(m);
+        int count = Math.max(1, Math.min(band_count, m.getHeight() / MIN_BAND_ROWS));
+        int band_rows = (m.getHeight() + count - 1) / count;
+        count = (m.getHeight() + band_rows - 1) / band_rows;
+
+        Band[] bands = new Band[count];
+        for (int i = 0; i < count; i++) {
+            bands[i] = components.new Band(i * band_rows, Math.min(m.getHeight(), (i + 1) * band_rows));
+        }
+        if (count == 1) {
+            bands[0].compute();
+        } else {
+            ForkJoinPool.commonPool().invoke(new Bands(bands));
+        }
+
+        //join every band to the one above it, along the first row of the band
+        for (int i = 1; i < count; i++) {
+            int first = bands[i].first_row * components.width;
+            for (int cell = first; cell < first + components.width; cell++) {
+                if (components.parent[cell] != -1 && components.parent[cell - components.width] != -1) {
+                    components.union(cell, cell - components.width);
+                }
+            }
+        }
+        return components;
+    }
+
+    /**
+     * A method responsible for verifying whether two cells lie in the same component
+     * @param a     The index of the first cell
+     * @param b     The index of the second cell
+     * @return      true if both are navigable and a route joins them
+     */
+    boolean isConnected(int a, int b) {
+        if (parent[a] == -1 || parent[b] == -1) {
+            return false;
+        }
+        return find(a) == find(b);
+    }
+
+    /**
+     * A method responsible for finding the root of the component of a cell, halving the path on the way
+     * @param index     The index of a navigable cell
+     * @return          the index of the root
+     */
+    private int find(int index) {
+        while (parent[index] != index) {
+            parent[index] = parent[parent[index]];
+            index = parent[index];
+        }
+        return index;
+    }
+
+    /**
+     * A method responsible for joining the components of two cells, the larger root being linked to the smaller one
+     * @param a     The index of the first cell
+     * @param b     The index of the second cell
+     */
+    private void union(int a, int b) {
+        int root_a = find(a);
+        int root_b = find(b);
+        if (root_a < root_b) {
+            parent[root_b] = root_a;
+        } else if (root_b < root_a) {
+            parent[root_a] = root_b;
+        }
+    }
+
+    /**
+     * A nested class responsible for labelling every band at once
+     */
+    private static class Bands extends RecursiveAction {
+
+        /**
+         * Preserving the bands
+         */
+        private final Band[] bands;
+
+        /**
+         * Basic constructor
+         * @param b     The bands
+         */
+        Bands(Band[] b) {
+            bands = b;
+        }
+
+        @Override
+        protected void compute() {
+            invokeAll(bands);
+        }
+    }
+
+    /**
+     * A nested class responsible for labelling the cells of a range of rows
+     */
+    private class Band extends RecursiveAction {
+
+        /**
+         * Preserving the first row of the band and the row following its last one
+         */
+        private final int first_row;
+        private final int end_row;
+
+        /**
+         * Basic constructor
+         * @param f     The first row of the band
+         * @param e     The row following the last row of the band
+         */
+        Band(int f, int e) {
+            first_row = f;
+            end_row = e;
+        }
+
+        @Override
+        protected void compute() {
+            for (int row = first_row; row < end_row; row++) {
+                for (int col = 0, cell = row * width; col < width; col++, cell++) {
+                    if (!maze.isNavigable(cell)) {
+                        parent[cell] = -1;
+                        continue;
+                    }
+                    //a new cell simply joins the component on its left, then the one above is merged into it
+                    boolean left = col > 0 && parent[cell - 1] != -1;
+                    parent[cell] = left ? find(cell - 1) : cell;
+                    if (row > first_row && parent[cell - width] != -1) {
+                        union(cell, cell - width);
+                    }
+                }
+            }
+        }
+    }
+}
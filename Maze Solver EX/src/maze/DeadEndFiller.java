@@ -0,0 +1,286 @@
+package maze;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+/**
+ * Class providing the dead-end filling of a maze. A dead end is a navigable cell other than the entrance and the
+ * exit with at most one navigable neighbour: no route needs it, so it is filled, which may turn its neighbour into
+ * a new dead end. Filling goes on until none is left, leaving the corridors between the entrance and the exit and
+ * the loops.
+ * <p>
+ * The rows are split into stripes filled in parallel on the fork-join pool. A stripe owns the counts of its cells
+ * and is the only one to change them; when a filled cell has a neighbour in another stripe, that neighbour is posted
+ * to the inbox of its stripe, a lock-free queue. The stripes run in rounds, each stripe draining its inbox then
+ * filling what it can, until a round ends with every inbox empty
+ */
+class DeadEndFiller {
+
+    /**
+     * The fewest rows of a stripe, so that most neighbours lie within the same stripe
+     */
+    private static final int MIN_STRIPE_ROWS = 64;
+
+    /**
+     * Preserving the maze to be filled and its shape
+     */
+    private final Maze maze;
+    private final int width;
+    private final int height;
+
+    /**
+     * Preserving the number of open neighbours of every open cell, -1 for walls and filled cells
+     */
+    private final byte[] open;
+
+    /**
+     * Preserving the stripes, in row order
+     */
+    private final Stripe[] stripes;
+
+    /**
+     * Preserving the number of rows of every stripe but the last
+     */
+    private final int stripe_rows;
+
+    /**
+     * Basic constructor
+     * @param m             The maze to be filled
+     * @param stripe_count  The number of stripes to split the rows into, fewer are used on small mazes
+     */
+    private DeadEndFiller(Maze m, int stripe_count) {
+        maze = m;
+        width = m.getWidth();
+        height = m.getHeight();
+        open = new byte[m.getCellCount()];
+        int count = Math.max(1, Math.min(stripe_count, height / MIN_STRIPE_ROWS));
+        stripe_rows = (height + count - 1) / count;
+        count = (height + stripe_rows - 1) / stripe_rows;
+        stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(i * stripe_rows, Math.min(height, (i + 1) * stripe_rows));
+        }
+    }
+
+    /**
+     * A method responsible for filling the dead ends of a maze
+     * @param m             The maze to be filled
+     * @param stripe_count  The number of stripes to be filled in parallel, 1 to fill on the calling thread
+     * @return              the filled cells as a bitset, one bit per cell
+     */
+    static long[] fill(Maze m, int stripe_count) {
+        DeadEndFiller filler = new DeadEndFiller(m, stripe_count);
+        if (filler.stripes.length == 1) {
+            filler.stripes[0].compute();
+        } else {
+            boolean posted = true;
+            while (posted) {
+                ForkJoinPool.commonPool().invoke(new Round(filler.stripes));
+                posted = false;
+                for (Stripe stripe : filler.stripes) {
+                    posted |= !stripe.inbox.isEmpty();
+                }
+            }
+        }
+
+        long[] filled = new long[(m.getCellCount() + 63) >>> 6];
+        for (int i = 0; i < filler.open.length; i++) {
+            if (filler.open[i] < 0 && m.isNavigable(i)) {
+                filled[i >>> 6] |= 1L << i;
+            }
+        }
+        return filled;
+    }
+
+    /**
+     * A nested class responsible for one round, running every stripe once
+     */
+    private static class Round extends RecursiveAction {
+
+        /**
+         * Preserving the stripes of the round
+         */
+        private final Stripe[] stripes;
+
+        /**
+         * Basic constructor
+         * @param s     The stripes of the round
+         */
+        Round(Stripe[] s) {
+            stripes = s;
+        }
+
+        @Override
+        protected void compute() {
+            invokeAll(stripes);
+            for (Stripe stripe : stripes) {
+                stripe.reinitialize();  //the stripes are forked again by the next round
+            }
+        }
+    }
+
+    /**
+     * A nested class responsible for the cells of a range of rows
+     */
+    private class Stripe extends RecursiveAction {
+
+        /**
+         * Preserving the first cell of the stripe and the cell following its last one
+         */
+        private final int first;
+        private final int end;
+
+        /**
+         * Preserving the cells of other stripes which have lost an open neighbour in this one
+         */
+        private final Queue<Integer> inbox = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Preserving the dead ends of the stripe waiting to be filled
+         */
+        private int[] pending = new int[64];
+        private int pending_count;
+
+        /**
+         * Preserving whether the counts of the stripe have been set up
+         */
+        private boolean counted;
+
+        /**
+         * Basic constructor
+         * @param first_row     The first row of the stripe
+         * @param end_row       The row following the last row of the stripe
+         */
+        Stripe(int first_row, int end_row) {
+            first = first_row * width;
+            end = end_row * width;
+        }
+
+        @Override
+        protected void compute() {
+            if (!counted) {
+                count();
+                counted = true;
+            }
+            //posts keep arriving while the other stripes run, so they are taken in this round as long as there are some
+            do {
+                for (Integer cell = inbox.poll(); cell != null; cell = inbox.poll()) {
+                    release(cell);
+                }
+                while (pending_count > 0) {
+                    int cell = pending[--pending_count];
+                    if (open[cell] >= 0) {
+                        fillCell(cell);
+                    }
+                }
+            } while (!inbox.isEmpty());
+        }
+
+        /**
+         * A method responsible for counting the open neighbours of the cells of the stripe, and finding its dead ends
+         */
+        private void count() {
+            for (int i = first; i < end; i++) {
+                if (!maze.isNavigable(i)) {
+                    open[i] = -1;
+                    continue;
+                }
+                int row = i / width;
+                int column = i - row * width;
+                int degree = 0;
+                if (row > 0 && maze.isNavigable(i - width)) {
+                    degree++;
+                }
+                if (row < height - 1 && maze.isNavigable(i + width)) {
+                    degree++;
+                }
+                if (column > 0 && maze.isNavigable(i - 1)) {
+                    degree++;
+                }
+                if (column < width - 1 && maze.isNavigable(i + 1)) {
+                    degree++;
+                }
+                open[i] = (byte) degree;
+                if (isDeadEnd(i)) {
+                    push(i);
+                }
+            }
+        }
+
+        /**
+         * A method responsible for filling a dead end, and telling each of its neighbours it has gone
+         * @param cell      The index of the dead end
+         */
+        private void fillCell(int cell) {
+            open[cell] = -1;
+            int row = cell / width;
+            int column = cell - row * width;
+            if (row > 0) {
+                tell(cell - width);
+            }
+            if (row < height - 1) {
+                tell(cell + width);
+            }
+            if (column > 0) {
+                tell(cell - 1);
+            }
+            if (column < width - 1) {
+                tell(cell + 1);
+            }
+        }
+
+        /**
+         * A method responsible for telling a neighbour of a filled cell it has lost an open neighbour, directly when
+         * it belongs to this stripe and through the inbox of its stripe otherwise
+         * @param cell      The index of the neighbour
+         */
+        private void tell(int cell) {
+            if (!maze.isNavigable(cell)) {
+                return;
+            }
+            if (cell >= first && cell < end) {
+                release(cell);
+            } else {
+                stripes[cell / width / stripe_rows].inbox.add(cell);
+            }
+        }
+
+        /**
+         * A method responsible for taking an open neighbour from a cell of the stripe, which may make it a dead end
+         * @param cell      The index of the cell
+         */
+        private void release(int cell) {
+            if (open[cell] < 0) {
+                return;     // already filled
+            }
+            open[cell]--;
+            if (isDeadEnd(cell)) {
+                push(cell);
+            }
+        }
+
+        /**
+         * A method responsible for verifying whether an open cell of the stripe is a dead end
+         * @param cell      The index of the cell
+         * @return          true if it has at most one open neighbour and is neither the entrance nor the exit
+         */
+        private boolean isDeadEnd(int cell) {
+            return open[cell] <= 1 && cell != maze.getEntranceIndex() && cell != maze.getExitIndex();
+        }
+
+        /**
+         * A method responsible for adding a dead end to be filled
+         * @param cell      The index of the dead end
+         */
+        private void push(int cell) {
+            if (pending_count == pending.length) {
+                pending = Arrays.copyOf(pending, pending_count * 2);
+            }
+            pending[pending_count++] = cell;
+        }
+    }
+}
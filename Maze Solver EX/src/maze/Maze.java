@@ -1,14 +1,17 @@
 package maze;
 
 import java.io.*;
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.AbstractList;
 import java.util.List;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 
 /**
- * Class providing the definition of Maze, which is the main object to be manipulated
+ * Class providing the definition of Maze, which is the main object to be manipulated.
+ * A maze is never modified once it has been loaded, so it can be shared by route finders running on several threads
  */
 public class Maze implements Serializable {
 
@@ -20,109 +23,147 @@ public class Maze implements Serializable {
     }
 
     /**
-     * Preserving the entrance of a maze
+     * Cell codes stored in the packed grid, two bits per cell. The entrance and the exit are stored as corridors,
+     * their positions are kept separately in {@link #entrance_index} and {@link #exit_index}
      */
-    private Tile entrance;
+    public static final int WALL = 0;
+    public static final int CORRIDOR = 1;
+    public static final int MUD = 2;
+    public static final int WATER = 3;
 
     /**
-     * Preserving the exit of a maze
+     * The cost of walking onto a cell, indexed by its code
      */
-    private Tile exit;
+    private static final int[] COSTS = {Tile.Type.WALL.getCost(), Tile.Type.CORRIDOR.getCost(),
+            Tile.Type.MUD.getCost(), Tile.Type.WATER.getCost()};
 
     /**
-     * Preserving all lists in an accessible data structure
+     * The tile type of a cell, indexed by its code
      */
-    private List<List<Tile>> tiles;
+    private static final Tile.Type[] TYPES = {Tile.Type.WALL, Tile.Type.CORRIDOR, Tile.Type.MUD, Tile.Type.WATER};
 
     /**
-     * Empty constructor
+     * The highest cost of walking onto a cell
      */
-    private Maze() {}
+    public static final int MAX_COST = Tile.Type.WATER.getCost();
 
     /**
-     * A method responsible for instantiating the maze object by reading in a new maze from 'txt' file
-     * @param src     The directory for loading the file from
-     * @throws        IOException when cannot read in file
-     * @return        The maze to be instantiated
+     * The size of the buffer the 'txt' file is read through
      */
-    public static Maze fromTxt(String src) throws IOException {
-        Maze maze_return = new Maze();  //initialize the instantiation of the maze to be returned
-        try (
-            /**  create a file reader obj, to handle the low level details of reading the maze from
-             * the 'src' file
-             */
-            FileReader mazeFile = new FileReader(src);
-            BufferedReader mazeStream = new BufferedReader(mazeFile)
-            )
-        {
+    private static final int READ_BUFFER_SIZE = 1 << 20;
 
-            // read in the first line of the file
-            List<Integer> x_length = new ArrayList<>();        //initialize a list for storing every row's length
+    /**
+     * The size from which a 'txt' file is decoded in parallel
+     */
+    private static final long PARALLEL_THRESHOLD = 64L << 20;
 
-            //compute the shape of the maze
-            List<List<Tile>> tmp_list_r = new ArrayList<>();   //contains every row
+    /**
+     * The extension of the binary format
+     */
+    public static final String BINARY_EXTENSION = ".mazeb";
 
-            int ylen = 0;   //initialize the row number of the maze
+    /**
+     * The characters of the 'txt' format, indexed by cell code
+     */
+    private static final byte[] CHARS = {'#', '.', 'm', 'w'};
 
-            /**
-            * read in the rest of the file
-            */
-            while (true) {
-                List<Tile> tmp_list_c = new ArrayList<>();   //contains every tile in a single column
-                //read in a line once a time
-                String tmpMaze = mazeStream.readLine();
+    /**
+     * Preserving the width (number of columns) and the height (number of rows) of the maze
+     */
+    private int width;
+    private int height;
 
-                //stop reading at EOF
-                if (tmpMaze == null || tmpMaze.length() == 0) {
-                    break;
-                }
+    /**
+     * Preserving every cell of the maze in a packed grid, four cells per byte.
+     * A cell is addressed by its index {@code row * width + column}, where row 0 is the first line of the file.
+     * The grid is either a heap buffer or, for mazes loaded from a '.mazeb' file, the mapped body of the file
+     */
+    private transient ByteBuffer cells;
 
-                int xlen = tmpMaze.length();    //initialize the column number of the maze
-                x_length.add(xlen);     //add the current row's length to the list
+    /**
+     * Preserving the index of the entrance of a maze
+     */
+    private int entrance_index = -1;
 
-                //convert str to char[] in order to pick out certain char
-                char[] tmpCharMaze = tmpMaze.toCharArray();
+    /**
+     * Preserving the index of the exit of a maze
+     */
+    private int exit_index = -1;
 
-                //generate a row of Tiles
-                for(int i=0; i<xlen; i++) {
-                    Tile tmp_tile = Tile.fromChar(tmpCharMaze[i]);
+    /**
+     * Preserving whether the maze contains mud or water, i.e. whether moves may cost more than one
+     */
+    private boolean weighted;
 
-                    if (tmp_tile == null) {
-                        throw new InvalidMazeException("\nMaze Invalid!");
-                    }
-                    else{
-                        tmp_list_c.add(tmp_tile);
-                    }
-                }
+    /**
+     * Preserving the tiles handed out by the compatibility view, created lazily on first access so that
+     * solvers working on the packed grid never pay for one object per cell. It is not serialized, so the size
+     * of a serialized maze does not depend on which tiles were asked for; a deserialized maze creates it anew
+     */
+    private transient Tile[] tile_view;
+
+    /**
+     * Preserving the list view returned by {@link #getTiles()}
+     */
+    private transient List<List<Tile>> tiles;
+
+    /**
+     * Preserving the corridor graph, built on first access, see {@link #getGraph()}
+     */
+    private transient volatile MazeGraph graph;
 
-                //add the row to the bigger List
-                tmp_list_r.add(tmp_list_c);
+    /**
+     * Preserving the cells filled as dead ends as a bitset, one bit per cell, null unless the maze has been returned
+     * by {@link #fillDeadEnds()}. The grid itself is left as it was loaded
+     */
+    private long[] filled;
+    private int filled_count;
 
-                //row ptr + 1
-                ylen += 1;
+    /**
+     * Preserving whether the exit can be reached from the entrance, null until first asked, see {@link #isSolvable()}
+     */
+    private transient volatile Boolean solvable;
 
+    /**
+     * Empty constructor
+     */
+    private Maze() {}
+
+    /**
+     * A method responsible for instantiating the maze object by reading in a new maze from 'txt' file.
+     * The file is read once through a large buffer, every byte is validated and packed into the grid on the way.
+     * Files of 64 MiB and more are memory-mapped and decoded in parallel instead, with the same result
+     * @param src     The directory for loading the file from
+     * @throws        IOException when cannot read in file
+     * @return        The maze to be instantiated
+     */
+    public static Maze fromTxt(String src) throws IOException {
+        Maze maze_return = new Maze();  //initialize the instantiation of the maze to be returned
+        try (
+            FileInputStream mazeFile = new FileInputStream(src);
+            FileChannel mazeChannel = mazeFile.getChannel()
+            )
+        {
+            //very large files are decoded in parallel chunks when there are cores to spare
+            int parallelism = ForkJoinPool.getCommonPoolParallelism();
+            if (mazeChannel.size() >= PARALLEL_THRESHOLD && parallelism > 1) {
+                ParallelTxtDecoder.decode(mazeChannel, maze_return, parallelism * 4);
+                return maze_return;
             }
 
-            /**
-             * this part is responsible for evaluating the exceptions
-             */
-            handleExceptions(x_length, tmp_list_r);
-
-            /**
-             * set the entrance and exit of the maze to be returned
-             */
-            maze_return.tiles = tmp_list_r;
-            for (int i = 0; i < maze_return.tiles.size(); i++) {
-                for (int j = 0; j< maze_return.tiles.get(i).size(); j++) {
-                    if (maze_return.tiles.get(i).get(j).toString().equals("e")) {
-                        maze_return.setEntrance(maze_return.tiles.get(i).get(j));
-                    }
-                    if (maze_return.tiles.get(i).get(j).toString().equals("x")) {
-                        maze_return.setExit(maze_return.tiles.get(i).get(j));
-                    }
+            TxtDecoder decoder = new TxtDecoder(mazeChannel.size());
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+            //decode chunk by chunk, the decoder stops at the first empty line like readLine() did
+            while (mazeChannel.read(buffer) != -1) {
+                if (!decoder.feed(buffer.array(), 0, buffer.position())) {
+                    break;
                 }
+                buffer.clear();
             }
 
+            //check the counts gathered on the way and store the grid
+            decoder.finish(maze_return);
             return maze_return;
         }
 
@@ -138,59 +179,168 @@ public class Maze implements Serializable {
     }
 
     /**
-     * A method responsible for handling(detecting) the possible exceptions
-     * @param x_length     The list contains the length of every line
-     * @throws RaggedMazeException when the maze read in is ragged
-     * @throws MultipleEntranceException when the maze has multiple entrance
-     * @throws MultipleExitException when the maze has multiple exit
-     * @throws NoEntranceException when the maze has no entrance
-     * @throws NoExitException when the maze has no exit
-     * @param tmp_list_r   The list contains all tiles
+     * A method responsible for instantiating the maze object from a '.mazeb' file. The body of the file is mapped
+     * and used as the grid of the maze as it is, only the checksum is computed over it
+     * @param src     The directory for loading the file from
+     * @throws EOFException when the file is empty
+     * @throws InvalidMazeException when the file is not a valid maze, is corrupted or has an unsupported version
+     * @throws IOException when cannot read in file
+     * @return        The maze to be instantiated
      */
-    private static void handleExceptions(List x_length, List<List<Tile>> tmp_list_r)
-            throws RaggedMazeException, MultipleEntranceException, MultipleExitException,
-            NoEntranceException, NoExitException
-    {
-        /**
-         *Testing RaggedMaze
-         */
-        Set<Integer> tmp_set = new HashSet<>(x_length); //Set: unsafe operations?
-        if (tmp_set.size() != 1) {                      //every row's length should be identical
-            throw new RaggedMazeException("\nRagged Maze!");
+    public static Maze fromBinary(String src) throws IOException {
+        Maze maze_return = new Maze();
+        try (
+            FileInputStream mazeFile = new FileInputStream(src);
+            FileChannel mazeChannel = mazeFile.getChannel()
+            )
+        {
+            BinaryFormat.read(mazeChannel, maze_return);
+            return maze_return;
         }
+        catch (FileNotFoundException e) {
+            throw new FileNotFoundException("\n File not found! ");
+        }
+    }
 
-        int xlen = tmp_list_r.get(0).size();     //row size
-        int ylen = tmp_list_r.size();            //column size
-        int entrance_count = 0;                  //initialize the count of entrances
-        int exit_count = 0;                      //initialize the count of exits
+    /**
+     * A method responsible for instantiating the maze object from the bytes of a '.mazeb' file held in memory,
+     * the grid is used without being copied
+     * @param image   The bytes of the file, from the position to the limit of the buffer
+     * @throws InvalidMazeException when the bytes are not a valid maze, are corrupted or have an unsupported version
+     * @return        The maze to be instantiated
+     */
+    public static Maze fromBinary(ByteBuffer image) {
+        Maze maze_return = new Maze();
+        BinaryFormat.read(image, maze_return);
+        return maze_return;
+    }
 
-        //iterate through the list to count the num of entrances and lists
-        for (List<Tile> tileList : tmp_list_r) {
-            for (int j = 0; j < xlen; j++) {
-                if (tileList.get(j).toString().equals("e")) {
-                    entrance_count += 1;
-                }
-                if (tileList.get(j).toString().equals("x")) {
-                    exit_count += 1;
-                }
-            }
-        }
+    /**
+     * A method responsible for instantiating the maze object from either format, chosen by the file extension:
+     * '.mazeb' files are read by {@link #fromBinary(String)}, all others by {@link #fromTxt(String)}
+     * @param src     The directory for loading the file from
+     * @throws IOException when cannot read in file
+     * @return        The maze to be instantiated
+     */
+    public static Maze fromFile(String src) throws IOException {
+        return src.toLowerCase().endsWith(BINARY_EXTENSION) ? fromBinary(src) : fromTxt(src);
+    }
 
-        //case: no entrance
-        if (entrance_count == 0) {
-            throw new NoEntranceException("\nNo Entrance!");
+    /**
+     * A method responsible for instantiating the maze object from a packed grid built in memory, e.g. by a generator
+     * @param w         The number of columns
+     * @param h         The number of rows
+     * @param packed    The cells, packed four per byte as described in {@link #getCell(int)}, the array is copied
+     * @param entrance  The index of the entrance, which must be a corridor
+     * @param exit      The index of the exit, which must be a corridor
+     * @throws IllegalArgumentException when the shape, the grid or the entrance and exit do not match
+     * @return          The maze to be instantiated
+     */
+    public static Maze fromCells(int w, int h, byte[] packed, int entrance, int exit) {
+        if (w <= 0 || h <= 0 || (long) w * h > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid size: " + w + "x" + h);
+        }
+        if (packed.length != packedLength(w * h)) {
+            throw new IllegalArgumentException("Expected " + packedLength(w * h) + " bytes, got " + packed.length);
         }
-        //case: more than one entrance
-        if (entrance_count > 1) {
-            throw new MultipleEntranceException("\nMultiple Entrances!");
+        Maze maze_return = new Maze();
+        maze_return.width = w;
+        maze_return.height = h;
+        byte[] copy = packed.clone();
+        if (((w * h) & 3) != 0) {
+            //clear the unused cells of the last byte
+            copy[copy.length - 1] &= (1 << (((w * h) & 3) << 1)) - 1;
         }
-        //case: no exit
-        if (exit_count == 0) {
-            throw new NoExitException("\nNo Exit!");
+        maze_return.cells = ByteBuffer.wrap(copy);
+        if (entrance == exit) {
+            throw new IllegalArgumentException("Entrance and exit are the same tile!");
         }
-        //case: more than one exit
-        if (exit_count > 1) {
-            throw new MultipleExitException("\nMultiple Exits!");
+        maze_return.setEntrance(entrance);
+        maze_return.setExit(exit);
+        if (maze_return.getCell(entrance) != CORRIDOR || maze_return.getCell(exit) != CORRIDOR) {
+            throw new IllegalArgumentException("Entrance and exit must be corridors!");
+        }
+        //mud and water are the only codes with the high bit set
+        for (byte b : copy) {
+            if ((b & 0xAA) != 0) {
+                maze_return.weighted = true;
+                break;
+            }
+        }
+        return maze_return;
+    }
+
+    /**
+     * A method responsible for storing a decoded grid into a new maze
+     * @param w         The number of columns
+     * @param h         The number of rows
+     * @param packed    The packed cells, kept as they are, positioned at the first cell
+     * @param entrance  The index of the entrance
+     * @param exit      The index of the exit
+     * @param weight    Whether the grid contains mud or water
+     */
+    void load(int w, int h, ByteBuffer packed, int entrance, int exit, boolean weight) {
+        width = w;
+        height = h;
+        cells = packed;
+        weighted = weight;
+        setEntrance(entrance);
+        setExit(exit);
+    }
+
+    /**
+     * A method responsible for writing the maze to a '.mazeb' file
+     * @param dst     The directory for saving the file
+     * @throws IOException when the file cannot be written
+     */
+    public void toBinary(String dst) throws IOException {
+        try (
+            FileOutputStream mazeFile = new FileOutputStream(dst);
+            FileChannel mazeChannel = mazeFile.getChannel()
+            )
+        {
+            toBinary(mazeChannel);
+        }
+    }
+
+    /**
+     * A method responsible for writing the maze in the '.mazeb' format to a channel
+     * @param channel     The channel to write to
+     * @throws IOException when the channel cannot be written
+     */
+    public void toBinary(WritableByteChannel channel) throws IOException {
+        BinaryFormat.write(this, cells, channel);
+    }
+
+    /**
+     * A method responsible for returning the size of the maze in the '.mazeb' format
+     * @return        The number of bytes {@link #toBinary(WritableByteChannel)} writes
+     */
+    public int getBinarySize() {
+        return BinaryFormat.HEADER_SIZE + packedLength(width * height);
+    }
+
+    /**
+     * A method responsible for writing the maze to a 'txt' file which {@link #fromTxt(String)} reads back
+     * @param dst     The directory for saving the file
+     * @throws IOException when the file cannot be written
+     */
+    public void toTxt(String dst) throws IOException {
+        byte[] line = new byte[width + 1];
+        line[width] = '\n';
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(dst), READ_BUFFER_SIZE)) {
+            for (int row = 0; row < height; row++) {
+                for (int column = 0; column < width; column++) {
+                    line[column] = CHARS[getCell(row * width + column)];
+                }
+                if (entrance_index / width == row) {
+                    line[entrance_index % width] = 'e';
+                }
+                if (exit_index / width == row) {
+                    line[exit_index % width] = 'x';
+                }
+                out.write(line);
+            }
         }
     }
 
@@ -200,16 +350,30 @@ public class Maze implements Serializable {
      * @return      The coordinate of the tile
      */
     public Coordinate getTileLocation(Tile t) {
-        //iterate through the tiles list to find the given tile
-        for (int i=0; i < tiles.size(); i++) {
-            int index = tiles.get(i).indexOf(t);
-            if (index != -1) {
-                //convert the coordinate since the coordinate system in list accessing is different than those
-                //used in representing the maze board
-                return new Coordinate(index, tiles.size() - 1 - i);
-            }
+        int index = getTileIndex(t);
+        if (index == -1) {
+            return new Coordinate(-1, -1);
         }
-        return new Coordinate(-1, -1);
+        //convert the coordinate since the coordinate system in the grid is different than those
+        //used in representing the maze board
+        return new Coordinate(index % width, height - 1 - index / width);
+    }
+
+    /**
+     * A method responsible for get the index of a given tile in constant time
+     * @param t     The tile whose index to be get
+     * @return      The index of the tile, or -1 if the tile does not belong to this maze
+     */
+    public synchronized int getTileIndex(Tile t) {
+        if (t == null || tile_view == null) {
+            return -1;
+        }
+        int index = t.getIndex();
+        //only tiles handed out by this maze can be located
+        if (index < 0 || index >= tile_view.length || tile_view[index] != t) {
+            return -1;
+        }
+        return index;
     }
 
     /**
@@ -219,24 +383,32 @@ public class Maze implements Serializable {
      * @return      The adjacent tile
      */
     public Tile getAdjacentTile(Tile t, Direction v) {
-        Coordinate origin = getTileLocation(t);
-        switch(v.toString())
+        int index = getTileIndex(t);
+        if (index == -1) {
+            return null;
+        }
+        return getTile(getAdjacentIndex(index, v));
+    }
+
+    /**
+     * A method responsible for get the index of the adjacent cell of a given cell
+     * @param index     The index of the cell whose adjacent cell is to be get
+     * @param v         The direction of the very adjacent cell
+     * @return          The index of the adjacent cell, or -1 if it is out of the maze
+     */
+    public int getAdjacentIndex(int index, Direction v) {
+        switch(v)
         {
-            case "NORTH":
-                origin = new Coordinate(origin.getX(), origin.getY() + 1);
-                return getTileAtLocation(origin);
-            case "SOUTH":
-                origin = new Coordinate(origin.getX(), origin.getY() - 1);
-                return getTileAtLocation(origin);
-            case "WEST":
-                origin = new Coordinate(origin.getX() - 1, origin.getY());
-                return getTileAtLocation(origin);
-            case "EAST":
-                origin = new Coordinate(origin.getX() + 1, origin.getY());
-                return getTileAtLocation(origin);
+            case NORTH:
+                return (index >= width) ? index - width : -1;
+            case SOUTH:
+                return (index < width * (height - 1)) ? index + width : -1;
+            case WEST:
+                return (index % width != 0) ? index - 1 : -1;
+            case EAST:
+                return (index % width != width - 1) ? index + 1 : -1;
             default:
-                origin = null;
-                return getTileAtLocation(origin);
+                return -1;
         }
     }
 
@@ -245,7 +417,7 @@ public class Maze implements Serializable {
      * @return      The entrance
      */
     public Tile getEntrance() {
-        return entrance;
+        return getTile(entrance_index);
     }
 
     /**
@@ -253,7 +425,7 @@ public class Maze implements Serializable {
      * @return      The entrance
      */
     public Tile getExit() {
-        return exit;
+        return getTile(exit_index);
     }
 
     /**
@@ -263,28 +435,307 @@ public class Maze implements Serializable {
      */
     public Tile getTileAtLocation(Coordinate c) {
         //check whether the coordinate is located in the array
-        if ((c.getX() >= tiles.get(0).size()) || (c.getX() <= -1) || (c.getY() >= tiles.size()) || (c.getY()<= -1)) {
+        if ((c.getX() >= width) || (c.getX() <= -1) || (c.getY() >= height) || (c.getY()<= -1)) {
             return null;
         }
-        return getTiles().get(tiles.size() - 1- c.getY()).get(c.getX());    //convert the coordinate and return
+        return getTile((height - 1 - c.getY()) * width + c.getX());    //convert the coordinate and return
     }
 
     /**
-     * A method responsible for returning all tiles stored in certain data structure
+     * A method responsible for returning all tiles as a list of rows, kept as a read-only view over the packed grid
+     * for callers working with {@link Tile} objects
      * @return      The tile list
      */
-    public List<List<Tile>> getTiles() {
+    public synchronized List<List<Tile>> getTiles() {
+        if (tiles == null) {
+            tiles = new AbstractList<List<Tile>>() {
+                @Override
+                public List<Tile> get(int row) {
+                    if (row < 0 || row >= height) {
+                        throw new IndexOutOfBoundsException("Row " + row + " out of bounds!");
+                    }
+                    return new AbstractList<Tile>() {
+                        @Override
+                        public Tile get(int column) {
+                            if (column < 0 || column >= width) {
+                                throw new IndexOutOfBoundsException("Column " + column + " out of bounds!");
+                            }
+                            return getTile(row * width + column);
+                        }
+
+                        @Override
+                        public int size() {
+                            return width;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return height;
+                }
+            };
+        }
         return tiles;
     }
 
+    /**
+     * A method responsible for returning the tile of a given cell, the same tile object is returned on every call,
+     * from every thread
+     * @param index     The index of the cell
+     * @return          The tile of the cell, or null if the index is out of the maze
+     */
+    public synchronized Tile getTile(int index) {
+        if (index < 0 || index >= width * height) {
+            return null;
+        }
+        if (tile_view == null) {
+            tile_view = new Tile[width * height];
+        }
+        if (tile_view[index] == null) {
+            Tile.Type type;
+            if (index == entrance_index) {
+                type = Tile.Type.ENTRANCE;
+            } else if (index == exit_index) {
+                type = Tile.Type.EXIT;
+            } else {
+                type = TYPES[getCell(index)];
+            }
+            tile_view[index] = new Tile(type, index);
+        }
+        return tile_view[index];
+    }
+
+    /**
+     * A method responsible for returning the width of the maze
+     * @return      The number of columns
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * A method responsible for returning the height of the maze
+     * @return      The number of rows
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * A method responsible for returning the number of cells of the maze
+     * @return      width * height
+     */
+    public int getCellCount() {
+        return width * height;
+    }
+
+    /**
+     * A method responsible for converting a row and a column to a cell index
+     * @param row       The row, counted from the first line of the file
+     * @param column    The column
+     * @return          The index of the cell
+     */
+    public int toIndex(int row, int column) {
+        return row * width + column;
+    }
+
+    /**
+     * A method responsible for reading the code of a cell from the packed grid
+     * @param index     The index of the cell
+     * @return          {@link #WALL}, {@link #CORRIDOR}, {@link #MUD} or {@link #WATER}
+     */
+    public int getCell(int index) {
+        return (cells.get(index >>> 2) >>> ((index & 3) << 1)) & 3;
+    }
+
+    /**
+     * A method responsible for returning the character of a cell, as written to a 'txt' file
+     * @param index     The index of the cell
+     * @return          'e' or 'x' for the entrance and the exit, the character of its code otherwise
+     */
+    public char getCellChar(int index) {
+        if (index == entrance_index) {
+            return 'e';
+        }
+        if (index == exit_index) {
+            return 'x';
+        }
+        return (char) CHARS[getCell(index)];
+    }
+
+    /**
+     * A method responsible for verifying whether a cell can be walked through
+     * @param index     The index of the cell
+     * @return          true if the cell is not a wall
+     */
+    public boolean isNavigable(int index) {
+        return getCell(index) != WALL && (filled == null || (filled[index >>> 6] & (1L << index)) == 0);
+    }
+
+    /**
+     * A method responsible for verifying whether a cell has been filled as a dead end, see {@link #fillDeadEnds()}
+     * @param index     The index of the cell
+     * @return          true if the cell is a corridor, mud or water which has been filled
+     */
+    public boolean isFilled(int index) {
+        return filled != null && (filled[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * A method responsible for verifying whether the dead ends of the maze have been filled
+     * @return          true if the maze has been returned by {@link #fillDeadEnds()}
+     */
+    public boolean hasFilledDeadEnds() {
+        return filled != null;
+    }
+
+    /**
+     * A method responsible for returning the number of cells filled as dead ends
+     * @return          the number of filled cells, 0 if the dead ends have not been filled
+     */
+    public int getFilledCount() {
+        return filled_count;
+    }
+
+    /**
+     * A method responsible for filling the dead ends of the maze, until only the corridors between the entrance and
+     * the exit and the loops are left. No route needs a dead end, so every engine solves the filled maze the same
+     * way with fewer cells to search. The filled maze shares the grid of this one, its filled cells are reported by
+     * {@link #isFilled(int)} and are no longer navigable; the files written from it hold the grid as it was loaded.
+     * Large mazes are filled in parallel stripes of rows, see {@link DeadEndFiller}
+     * @return          the filled maze, this maze itself if its dead ends are already filled
+     */
+    public Maze fillDeadEnds() {
+        if (filled != null) {
+            return this;
+        }
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        long[] mask = DeadEndFiller.fill(this, parallelism > 1 ? parallelism * 4 : 1);
+
+        Maze maze_return = new Maze();
+        maze_return.load(width, height, cells, entrance_index, exit_index, weighted);
+        maze_return.filled = mask;
+        for (long word : mask) {
+            maze_return.filled_count += Long.bitCount(word);
+        }
+        return maze_return;
+    }
+
+    /**
+     * A method responsible for returning the cost of walking onto a cell
+     * @param index     The index of the cell
+     * @return          The cost of the cell, 0 for walls
+     */
+    public int getCost(int index) {
+        return COSTS[getCell(index)];
+    }
+
+    /**
+     * A method responsible for verifying whether every move in the maze costs the same
+     * @return          true if the maze contains neither mud nor water
+     */
+    public boolean isUniformCost() {
+        return !weighted;
+    }
+
+    /**
+     * A method responsible for verifying whether the exit can be reached from the entrance at all. The connected
+     * components of the maze are labelled on first access, in parallel bands of rows for large mazes, see
+     * {@link ConnectedComponents}; the answer is kept, so every later call is O(1)
+     * @return          true if a route joins the entrance and the exit
+     */
+    public boolean isSolvable() {
+        Boolean s = solvable;
+        if (s == null) {
+            synchronized (this) {
+                s = solvable;
+                if (s == null) {
+                    int parallelism = ForkJoinPool.getCommonPoolParallelism();
+                    s = ConnectedComponents.label(this, parallelism > 1 ? parallelism * 4 : 1)
+                            .isConnected(entrance_index, exit_index);
+                    solvable = s;
+                }
+            }
+        }
+        return s;
+    }
+
+    /**
+     * A method responsible for returning the corridor graph of the maze, where every chain of corridor cells is
+     * contracted into a single edge. It is built on first access and shared by every route finder afterwards
+     * @return          the corridor graph
+     */
+    public MazeGraph getGraph() {
+        MazeGraph g = graph;
+        if (g == null) {
+            synchronized (this) {
+                g = graph;
+                if (g == null) {
+                    g = new MazeGraph(this);
+                    graph = g;
+                }
+            }
+        }
+        return g;
+    }
+
+    /**
+     * A method responsible for returning the index of the entrance
+     * @return      The index of the entrance
+     */
+    public int getEntranceIndex() {
+        return entrance_index;
+    }
+
+    /**
+     * A method responsible for returning the index of the exit
+     * @return      The index of the exit
+     */
+    public int getExitIndex() {
+        return exit_index;
+    }
+
+    /**
+     * A method responsible for computing how many bytes the packed grid needs
+     * @param cell_count    The number of cells
+     * @return              The length of the byte array
+     */
+    static int packedLength(int cell_count) {
+        return (cell_count + 3) >>> 2;
+    }
+
+    /**
+     * A method responsible for decoding a character of the 'txt' format to a cell code
+     * @param c     The character to be decoded
+     * @return      The cell code, or -1 if the character is invalid
+     */
+    static int codeOf(char c) {
+        switch (c)
+        {
+            case '#':
+                return WALL;
+            case '.':
+            case 'e':
+            case 'x':
+                return CORRIDOR;
+            case 'm':
+                return MUD;
+            case 'w':
+                return WATER;
+            default:
+                return -1;
+        }
+    }
+
     /**
      * A method responsible for setting the entrance
-     * @param t     The tile which is going to be set as entrance
+     * @param index     The index of the cell which is going to be set as entrance
      */
-    private void setEntrance(Tile t) {
-        if (getEntrance() == null) {                //check: the entrance is not set?
-            if (getTileLocation(t).getX() != -1) {  //check: the tile is in the maze?
-                entrance = t;
+    private void setEntrance(int index) {
+        if (entrance_index == -1) {                     //check: the entrance is not set?
+            if (index >= 0 && index < width * height) { //check: the tile is in the maze?
+                entrance_index = index;
                 return;
             }
             throw new IllegalArgumentException("Tile Not Found!");
@@ -295,12 +746,12 @@ public class Maze implements Serializable {
 
     /**
      * A method responsible for setting the exit
-     * @param t     The tile which is going to be set as exit
+     * @param index     The index of the cell which is going to be set as exit
      */
-    private void setExit(Tile t) {
-        if (getExit() == null) {                    //check: the exit is not set?
-            if (getTileLocation(t).getX() != -1) {  //check: the tile is in the maze?
-                exit = t;
+    private void setExit(int index) {
+        if (exit_index == -1) {                         //check: the exit is not set?
+            if (index >= 0 && index < width * height) { //check: the tile is in the maze?
+                exit_index = index;
                 return;
             }
             throw new IllegalArgumentException("Tile Not Found!");
@@ -309,6 +760,29 @@ public class Maze implements Serializable {
         }
     }
 
+    /**
+     * A method responsible for serializing the maze, the grid is written as a plain byte array
+     * @param out   The stream to write to
+     * @throws IOException when the stream cannot be written
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        byte[] body = new byte[packedLength(width * height)];
+        cells.get(0, body);
+        out.writeObject(body);
+    }
+
+    /**
+     * A method responsible for deserializing the maze
+     * @param in    The stream to read from
+     * @throws IOException when the stream cannot be read
+     * @throws ClassNotFoundException when the stream holds an unknown class
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        cells = ByteBuffer.wrap((byte[]) in.readObject());
+    }
+
     /**
      * A method responsible for convert the data structure storing lists to a single string
      * @return      The string to be printed to the console
@@ -0,0 +1,311 @@
+package maze;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+
+/**
+ * Class providing the corridor graph of a maze in compressed sparse row form.
+ * The nodes are the navigable cells where something can happen: the entrance, the exit, dead ends and junctions.
+ * Every other navigable cell has exactly two navigable neighbours, so the chains of such cells are contracted into
+ * single edges, weighted by the cost of walking along them. An edge keeps the first cell it walks onto, so the cells
+ * it stands for can be walked again whenever a route has to be given cell by cell.
+ * The graph is built once per maze, see {@link Maze#getGraph()}, and is never modified afterwards
+ */
+public class MazeGraph implements Serializable {
+
+    /**
+     * The directions in which the edges of a node are listed
+     */
+    private static final Maze.Direction[] DIRECTIONS = Maze.Direction.values();
+
+    /**
+     * Preserving the maze the graph was built from
+     */
+    private final Maze maze;
+
+    /**
+     * Preserving the cell of every node, in increasing order of cell index
+     */
+    private final int[] node_cells;
+
+    /**
+     * Preserving the edges of every node: the edges leaving node i are the edges from offsets[i] to offsets[i + 1]
+     */
+    private final int[] offsets;
+
+    /**
+     * Preserving, for every edge, the node it leads to, the cost and the number of moves of walking along it,
+     * and the first cell it walks onto
+     */
+    private final int[] targets;
+    private final int[] weights;
+    private final int[] lengths;
+    private final int[] firsts;
+
+    /**
+     * Basic constructor, building the graph of a maze
+     * @param m     The maze
+     */
+    MazeGraph(Maze m) {
+        maze = m;
+        byte[] degrees = degrees(m);
+
+        //the nodes, found in increasing order of cell index
+        int node_count = 0;
+        int edge_count = 0;
+        for (int i = 0; i < degrees.length; i++) {
+            if (isNode(i, degrees)) {
+                node_count++;
+                edge_count += degrees[i];
+            }
+        }
+        node_cells = new int[node_count];
+        offsets = new int[node_count + 1];
+        for (int i = 0, node = 0; node < node_count; i++) {
+            if (isNode(i, degrees)) {
+                node_cells[node] = i;
+                offsets[node + 1] = offsets[node] + degrees[i];
+                node++;
+            }
+        }
+
+        //the edges, every chain of corridor cells being walked once from each of its ends
+        targets = new int[edge_count];
+        weights = new int[edge_count];
+        lengths = new int[edge_count];
+        firsts = new int[edge_count];
+        for (int node = 0; node < node_count; node++) {
+            int edge = offsets[node];
+            for (Maze.Direction dir : DIRECTIONS) {
+                int first = m.getAdjacentIndex(node_cells[node], dir);
+                if (first == -1 || !m.isNavigable(first)) {
+                    continue;
+                }
+                int previous = node_cells[node];
+                int current = first;
+                int weight = m.getCost(first);
+                int length = 1;
+                while (!isNode(current, degrees)) {
+                    int next = onwards(current, previous);
+                    previous = current;
+                    current = next;
+                    weight += m.getCost(current);
+                    length++;
+                }
+                targets[edge] = getNode(current);
+                weights[edge] = weight;
+                lengths[edge] = length;
+                firsts[edge] = first;
+                edge++;
+            }
+        }
+    }
+
+    /**
+     * A method responsible for returning the number of nodes
+     * @return      the number of nodes
+     */
+    public int getNodeCount() {
+        return node_cells.length;
+    }
+
+    /**
+     * A method responsible for returning the number of edges, every corridor being counted once in each direction
+     * @return      the number of edges
+     */
+    public int getEdgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * A method responsible for returning the cell of a node
+     * @param node      The node
+     * @return          the index of its cell
+     */
+    public int getCell(int node) {
+        return node_cells[node];
+    }
+
+    /**
+     * A method responsible for returning the node standing on a cell
+     * @param cell      The index of the cell
+     * @return          the node, or -1 if the cell is a wall or lies inside a corridor
+     */
+    public int getNode(int cell) {
+        int node = Arrays.binarySearch(node_cells, cell);
+        return node < 0 ? -1 : node;
+    }
+
+    /**
+     * A method responsible for returning the first edge leaving a node
+     * @param node      The node
+     * @return          the index of its first edge
+     */
+    public int getFirstEdge(int node) {
+        return offsets[node];
+    }
+
+    /**
+     * A method responsible for returning the end of the edges leaving a node
+     * @param node      The node
+     * @return          the index following its last edge
+     */
+    public int getEndEdge(int node) {
+        return offsets[node + 1];
+    }
+
+    /**
+     * A method responsible for returning the node an edge leaves
+     * @param edge      The edge
+     * @return          the node whose edges include it
+     */
+    public int getSource(int edge) {
+        //the last node whose first edge is not after the edge, nodes without edges sharing their offset with the next
+        int low = 0;
+        int high = node_cells.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (offsets[middle] <= edge) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * A method responsible for returning the node an edge leads to
+     * @param edge      The edge
+     * @return          the node at its end
+     */
+    public int getTarget(int edge) {
+        return targets[edge];
+    }
+
+    /**
+     * A method responsible for returning the cost of walking along an edge
+     * @param edge      The edge
+     * @return          the sum of the costs of the cells it walks onto, its target included
+     */
+    public int getWeight(int edge) {
+        return weights[edge];
+    }
+
+    /**
+     * A method responsible for returning the number of moves of an edge
+     * @param edge      The edge
+     * @return          the number of cells it walks onto, its target included
+     */
+    public int getLength(int edge) {
+        return lengths[edge];
+    }
+
+    /**
+     * A method responsible for writing the cells an edge walks onto, in order, its target included
+     * @param node      The node the edge leaves
+     * @param edge      The edge
+     * @param dst       The array to write to, with room for {@link #getLength(int)} cells
+     * @param pos       The position of the first cell in the array
+     */
+    public void copyPath(int node, int edge, int[] dst, int pos) {
+        int previous = node_cells[node];
+        int current = firsts[edge];
+        dst[pos] = current;
+        for (int i = pos + 1; i < pos + lengths[edge]; i++) {
+            int next = onwards(current, previous);
+            previous = current;
+            current = next;
+            dst[i] = current;
+        }
+    }
+
+    /**
+     * A method responsible for converting a route through the graph to the cells it walks through
+     * @param start     The node the route starts at
+     * @param edges     The edges of the route, in order
+     * @return          the indices of the cells on the route, from the cell of the start node onwards
+     */
+    public int[] toCells(int start, int[] edges) {
+        int length = 1;
+        for (int edge : edges) {
+            length += lengths[edge];
+        }
+        int[] cells = new int[length];
+        cells[0] = node_cells[start];
+        int pos = 1;
+        int node = start;
+        for (int edge : edges) {
+            copyPath(node, edge, cells, pos);
+            pos += lengths[edge];
+            node = targets[edge];
+        }
+        return cells;
+    }
+
+    /**
+     * A method responsible for verifying whether a cell is a node: a navigable cell which is the entrance, the exit
+     * or has other than two navigable neighbours
+     * @param index     The index of the cell
+     * @param degrees   The number of navigable neighbours of every cell, see {@link #degrees(Maze)}
+     * @return          true if the cell is a node
+     */
+    private boolean isNode(int index, byte[] degrees) {
+        if (degrees[index] < 0) {
+            return false;
+        }
+        return degrees[index] != 2 || index == maze.getEntranceIndex() || index == maze.getExitIndex();
+    }
+
+    /**
+     * A method responsible for counting the navigable neighbours of every cell, row by row so that no neighbour
+     * has to be bounds-checked through its index
+     * @param m     The maze
+     * @return      the number of navigable neighbours of every cell, from 0 to 4, -1 for walls
+     */
+    private static byte[] degrees(Maze m) {
+        int width = m.getWidth();
+        int height = m.getHeight();
+        byte[] degrees = new byte[m.getCellCount()];
+        for (int row = 0, i = 0; row < height; row++) {
+            for (int col = 0; col < width; col++, i++) {
+                if (!m.isNavigable(i)) {
+                    degrees[i] = -1;
+                    continue;
+                }
+                int degree = 0;
+                if (row > 0 && m.isNavigable(i - width)) {
+                    degree++;
+                }
+                if (row < height - 1 && m.isNavigable(i + width)) {
+                    degree++;
+                }
+                if (col > 0 && m.isNavigable(i - 1)) {
+                    degree++;
+                }
+                if (col < width - 1 && m.isNavigable(i + 1)) {
+                    degree++;
+                }
+                degrees[i] = (byte) degree;
+            }
+        }
+        return degrees;
+    }
+
+    /**
+     * A method responsible for finding where a corridor goes on, given where it comes from
+     * @param index     The index of a corridor cell, which has exactly two navigable neighbours
+     * @param previous  The index of the neighbour the corridor comes from
+     * @return          the index of the other navigable neighbour
+     */
+    private int onwards(int index, int previous) {
+        for (Maze.Direction dir : DIRECTIONS) {
+            int next = maze.getAdjacentIndex(index, dir);
+            if (next != -1 && next != previous && maze.isNavigable(next)) {
+                return next;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,405 @@
+package maze;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+/**
+ * Class providing a parallel decoder of the 'txt' format for very large files. The file is memory-mapped and split
+ * at line starts into chunks, which are scanned on the fork-join pool in two passes: the first one validates the
+ * characters and counts the lines, entrances and exits of every chunk, the second one packs every chunk into its
+ * own rows of the grid. The results are merged in file order, so the maze and the exceptions are the same as those
+ * of {@link TxtDecoder}
+ */
+class ParallelTxtDecoder {
+
+    /**
+     * The cell code of every byte, -1 for invalid characters, -2 for line ends
+     */
+    private static final byte[] CODES = new byte[256];
+    static {
+        Arrays.fill(CODES, (byte) -1);
+        for (char c : new char[]{'#', '.', 'e', 'x', 'm', 'w'}) {
+            CODES[c] = (byte) Maze.codeOf(c);
+        }
+        CODES['\n'] = -2;
+        CODES['\r'] = -2;
+    }
+
+    /**
+     * The largest chunk to be mapped at once, a mapping cannot exceed 2 GiB
+     */
+    private static final long MAX_CHUNK_SIZE = 1L << 30;
+
+    /**
+     * Empty constructor
+     */
+    private ParallelTxtDecoder() {}
+
+    /**
+     * A method responsible for decoding a whole file into a maze
+     * @param channel       The channel of the file
+     * @param maze          The maze to store the grid, the shape, the entrance and the exit into
+     * @param chunk_count   The number of chunks to split the file into, more are used if a chunk would exceed 1 GiB
+     * @throws IOException when the file cannot be mapped
+     * @throws InvalidMazeException when the maze is invalid, see {@link TxtDecoder#finish(Maze)}
+     */
+    static void decode(FileChannel channel, Maze maze, int chunk_count) throws IOException {
+        long size = channel.size();
+        chunk_count = (int) Math.max(chunk_count, (size + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE);
+
+        //split at line starts, empty chunks are dropped
+        List<Chunk> chunks = new ArrayList<>();
+        long start = 0;
+        for (int i = 1; i <= chunk_count && start < size; i++) {
+            long end = (i == chunk_count) ? size : lineStart(channel, size * i / chunk_count, size);
+            if (end > start) {
+                chunks.add(new Chunk(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start), end == size));
+                start = end;
+            }
+        }
+
+        //first pass: validate and count
+        ForkJoinPool.commonPool().invoke(new Pass(chunks));
+
+        //merge the counts in file order, everything after the first empty line is ignored
+        int width = -1;
+        long rows = 0;
+        boolean ragged = false;
+        int entrance_count = 0;
+        int exit_count = 0;
+        long entrance_cell = -1;
+        long exit_cell = -1;
+        boolean weighted = false;
+        for (Chunk chunk : chunks) {
+            if (chunk.invalid) {
+                throw new InvalidMazeException("\nMaze Invalid!");
+            }
+            if (chunk.lines > 0) {
+                if (width == -1) {
+                    width = chunk.line_length;
+                }
+                ragged |= chunk.ragged || chunk.line_length != width;
+            }
+            //the positions are only meaningful once every line is known to be as wide as the first one
+            if (entrance_count == 0 && chunk.entrance_count > 0) {
+                entrance_cell = (rows + chunk.entrance_line) * Math.max(width, 0) + chunk.entrance_column;
+            }
+            if (exit_count == 0 && chunk.exit_count > 0) {
+                exit_cell = (rows + chunk.exit_line) * Math.max(width, 0) + chunk.exit_column;
+            }
+            entrance_count += chunk.entrance_count;
+            exit_count += chunk.exit_count;
+            weighted |= chunk.weighted;
+            chunk.first_row = rows;
+            rows += chunk.lines;
+            if (chunk.stopped) {
+                break;
+            }
+        }
+        if (!ragged && (long) width * rows >= Integer.MAX_VALUE) {
+            throw new InvalidMazeException("\nMaze too large!");
+        }
+
+        //same order of checks as the sequential decoder
+        if (ragged || rows == 0) {
+            throw new RaggedMazeException("\nRagged Maze!");
+        }
+        if (entrance_count == 0) {
+            throw new NoEntranceException("\nNo Entrance!");
+        }
+        if (entrance_count > 1) {
+            throw new MultipleEntranceException("\nMultiple Entrances!");
+        }
+        if (exit_count == 0) {
+            throw new NoExitException("\nNo Exit!");
+        }
+        if (exit_count > 1) {
+            throw new MultipleExitException("\nMultiple Exits!");
+        }
+
+        //second pass: pack every chunk into its rows
+        byte[] cells = new byte[Maze.packedLength((int) (width * rows))];
+        List<Chunk> used = new ArrayList<>();
+        for (Chunk chunk : chunks) {
+            if (chunk.lines > 0 && chunk.first_row >= 0) {
+                chunk.cells = cells;
+                chunk.width = width;
+                used.add(chunk);
+            }
+            if (chunk.stopped) {
+                break;
+            }
+        }
+        ForkJoinPool.commonPool().invoke(new Pass(used));
+
+        //the bytes shared by two chunks are merged here, every other byte was written by one chunk only
+        for (Chunk chunk : used) {
+            if (chunk.head_byte >= 0) {
+                cells[chunk.head_byte] |= chunk.head;
+            }
+            if (chunk.tail_byte >= 0) {
+                cells[chunk.tail_byte] |= chunk.tail;
+            }
+        }
+
+        maze.load(width, (int) rows, ByteBuffer.wrap(cells), (int) entrance_cell, (int) exit_cell, weighted);
+    }
+
+    /**
+     * A method responsible for finding the first line start at or after a position
+     * @param channel   The channel of the file
+     * @param position  The position to start from
+     * @param size      The size of the file
+     * @throws IOException when the file cannot be read
+     * @return          The position of the line start, or the size of the file if there is none
+     */
+    private static long lineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        //a position right after a line end is a line start, unless it splits a "\r\n"
+        long from = Math.max(0, position - 1);
+        boolean previous_cr = false;
+        boolean first = true;
+        while (from < size) {
+            buffer.clear();
+            int read = channel.read(buffer, from);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (previous_cr) {
+                    return (b == '\n') ? from + i + 1 : from + i;
+                }
+                if (first && position > 0) {
+                    //the byte before the position
+                    first = false;
+                    if (b == '\n') {
+                        return position;
+                    }
+                    previous_cr = (b == '\r');
+                    continue;
+                }
+                first = false;
+                if (b == '\n') {
+                    return from + i + 1;
+                }
+                previous_cr = (b == '\r');
+            }
+            from += read;
+        }
+        return size;
+    }
+
+    /**
+     * A nested class responsible for running one pass over all chunks in parallel
+     */
+    private static class Pass extends RecursiveAction {
+
+        /**
+         * Preserving the chunks of the pass
+         */
+        private final List<Chunk> chunks;
+
+        /**
+         * Basic constructor
+         * @param c     The chunks of the pass
+         */
+        Pass(List<Chunk> c) {
+            chunks = c;
+        }
+
+        @Override
+        protected void compute() {
+            invokeAll(chunks);
+            for (Chunk chunk : chunks) {
+                chunk.reinitialize();   //the chunks are forked again by the second pass
+            }
+        }
+    }
+
+    /**
+     * A nested class responsible for one chunk of the file, which starts at a line start and, unless it is the last
+     * chunk, ends right after a line end
+     */
+    private static class Chunk extends RecursiveAction {
+
+        /**
+         * Preserving the bytes of the chunk and whether it ends the file
+         */
+        private final MappedByteBuffer bytes;
+        private final boolean last;
+
+        /**
+         * Results of the first pass: the lines before the first empty line, the length of the first of them and
+         * whether the others differ, whether an invalid character or an empty line was met
+         */
+        private int lines;
+        private int line_length = -1;
+        private boolean ragged;
+        private boolean invalid;
+        private boolean stopped;
+
+        /**
+         * Results of the first pass: the entrances and exits and where the first of each is
+         */
+        private int entrance_count;
+        private int exit_count;
+        private int entrance_line;
+        private int entrance_column;
+        private int exit_line;
+        private int exit_column;
+        private boolean weighted;
+
+        /**
+         * Input of the second pass: the row of the first line, the grid and its width, -1 before the first pass
+         */
+        private long first_row = -1;
+        private byte[] cells;
+        private int width;
+
+        /**
+         * Results of the second pass: the first and the last byte of the chunk if other chunks share them
+         */
+        private int head_byte = -1;
+        private int tail_byte = -1;
+        private byte head;
+        private byte tail;
+
+        /**
+         * Basic constructor
+         * @param b     The bytes of the chunk
+         * @param l     Whether the chunk ends the file
+         */
+        Chunk(MappedByteBuffer b, boolean l) {
+            bytes = b;
+            last = l;
+        }
+
+        @Override
+        protected void compute() {
+            if (cells == null) {
+                scan();
+            } else {
+                pack();
+            }
+        }
+
+        /**
+         * A method responsible for the first pass: validating the characters and counting
+         */
+        private void scan() {
+            int limit = bytes.limit();
+            int column = 0;
+            boolean after_cr = false;
+            for (int i = 0; i < limit; i++) {
+                byte b = bytes.get(i);
+                int code = CODES[b & 0xFF];
+                if (code == -2) {
+                    if (b == '\n' && after_cr) {
+                        after_cr = false;
+                        continue;
+                    }
+                    after_cr = (b == '\r');
+                    if (column == 0) {
+                        stopped = true;
+                        return;
+                    }
+                    endLine(column);
+                    column = 0;
+                    continue;
+                }
+                after_cr = false;
+                if (code == -1) {
+                    invalid = true;
+                    return;
+                }
+                if (b == 'e') {
+                    if (entrance_count++ == 0) {
+                        entrance_line = lines;
+                        entrance_column = column;
+                    }
+                } else if (b == 'x') {
+                    if (exit_count++ == 0) {
+                        exit_line = lines;
+                        exit_column = column;
+                    }
+                } else if (code == Maze.MUD || code == Maze.WATER) {
+                    weighted = true;
+                }
+                column++;
+            }
+            //only the last line of the file may end without a line end
+            if (column > 0 && last) {
+                endLine(column);
+            }
+        }
+
+        /**
+         * A method responsible for counting a line of the first pass
+         * @param length    The length of the line
+         */
+        private void endLine(int length) {
+            if (line_length == -1) {
+                line_length = length;
+            } else if (length != line_length) {
+                ragged = true;
+            }
+            lines++;
+        }
+
+        /**
+         * A method responsible for the second pass: packing the lines into the grid, four cells at a time
+         */
+        private void pack() {
+            int first_cell = (int) (first_row * width);
+            int end_cell = first_cell + lines * width;
+            int first_full = (first_cell & 3) == 0 ? first_cell >>> 2 : (first_cell >>> 2) + 1;
+            int end_full = end_cell >>> 2;
+
+            int cell = first_cell;
+            int current = first_cell >>> 2;
+            int value = 0;
+            for (int i = 0; cell < end_cell; i++) {
+                int code = CODES[bytes.get(i) & 0xFF];
+                if (code == -2) {
+                    continue;   //every line has been checked already, line ends only need skipping
+                }
+                if ((cell >>> 2) != current) {
+                    store(current, value, first_full, end_full);
+                    current = cell >>> 2;
+                    value = 0;
+                }
+                value |= code << ((cell & 3) << 1);
+                cell++;
+            }
+            store(current, value, first_full, end_full);
+        }
+
+        /**
+         * A method responsible for storing a byte of the grid, the bytes shared with other chunks are kept aside
+         * @param index         The index of the byte
+         * @param value         The value of the byte
+         * @param first_full    The first byte only this chunk writes to
+         * @param end_full      The end of the bytes only this chunk writes to, exclusive
+         */
+        private void store(int index, int value, int first_full, int end_full) {
+            if (index < first_full) {
+                head_byte = index;
+                head = (byte) value;
+            } else if (index >= end_full) {
+                tail_byte = index;
+                tail = (byte) value;
+            } else {
+                cells[index] = (byte) value;
+            }
+        }
+    }
+}
@@ -9,10 +9,27 @@ import java.io.Serializable;
 public class Tile implements Serializable {
 
     /**
-     * A enumeration of tile types
+     * A enumeration of tile types, together with the cost of walking onto a tile of the type
      */
     public enum Type{
-        CORRIDOR, ENTRANCE, EXIT, WALL
+        CORRIDOR(1), ENTRANCE(1), EXIT(1), WALL(0), MUD(3), WATER(5);
+
+        /**
+         * Preserving the cost of walking onto a tile of the type
+         */
+        private final int cost;
+
+        Type(int c){
+            cost = c;
+        }
+
+        /**
+         * A method responsible for returning the cost of walking onto a tile of the type
+         * @return the cost, 0 for walls which cannot be walked onto
+         */
+        public int getCost(){
+            return cost;
+        }
     }
 
     /**
@@ -21,11 +38,26 @@ public class Tile implements Serializable {
     private Type type;
 
     /**
-     * private constructor for tiles
+     * Preserving the index of the tile in the maze it belongs to, -1 when the tile is not part of a maze
+     */
+    private int index;
+
+    /**
+     * private constructor for tiles which are not part of a maze
      * @param t     the type of the tile to be instantiated
      */
     private Tile(Type t){
+        this(t, -1);
+    }
+
+    /**
+     * package-private constructor, used by {@link Maze} when materializing its tile view
+     * @param t     the type of the tile to be instantiated
+     * @param i     the index of the tile in the maze
+     */
+    Tile(Type t, int i){
         type = t;
+        index = i;
     }
 
     /**
@@ -38,6 +70,8 @@ public class Tile implements Serializable {
         //# == wall
         //. == corridor
         //x == exit
+        //m == mud
+        //w == water
 
         switch (c)
         {
@@ -49,6 +83,10 @@ public class Tile implements Serializable {
                 return new Tile(Type.CORRIDOR);
             case 'x':
                 return new Tile(Type.EXIT);
+            case 'm':
+                return new Tile(Type.MUD);
+            case 'w':
+                return new Tile(Type.WATER);
             default:
                 return null;
         }
@@ -62,6 +100,14 @@ public class Tile implements Serializable {
         return type;
     }
 
+    /**
+     * A method responsible for returning the index of the tile in its maze
+     * @return the index of the tile, or -1 if the tile is not part of a maze
+     */
+    int getIndex(){
+        return index;
+    }
+
     /**
      * A method responsible for verify whether the tile is navigable or not (i.e. is the tile a wall?)
      * @return a boolean value indicates whether it's navigable or not
@@ -85,6 +131,10 @@ public class Tile implements Serializable {
                 return "#";
             case EXIT:
                 return "x";
+            case MUD:
+                return "m";
+            case WATER:
+                return "w";
             default:
                 return null;
         }
@@ -0,0 +1,191 @@
+package maze;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+
+/**
+ * Class providing the decoder of the 'txt' format, fed with raw bytes and packing every cell as soon as it is read.
+ * Lines end at '\n', '\r' or "\r\n" and the maze ends at the first empty line, like {@link java.io.BufferedReader#readLine()}.
+ * Invalid characters are rejected at once, the other problems are counted on the way and reported by {@link #finish(Maze)}
+ * in the order the original loader checked them
+ */
+class TxtDecoder {
+
+    /**
+     * The cell code of every byte, -1 for invalid characters
+     */
+    private static final byte[] CODES = new byte[256];
+    static {
+        Arrays.fill(CODES, (byte) -1);
+        for (char c : new char[]{'#', '.', 'e', 'x', 'm', 'w'}) {
+            CODES[c] = (byte) Maze.codeOf(c);
+        }
+    }
+
+    /**
+     * Preserving the length of the first line, -1 before it ends, and the number of lines so far
+     */
+    private int width = -1;
+    private int rows;
+
+    /**
+     * Preserving the length of the current line
+     */
+    private int column;
+
+    /**
+     * Preserving whether a line of another length has been met, packing stops then
+     */
+    private boolean ragged;
+
+    /**
+     * Preserving whether the empty line ending the maze has been met
+     */
+    private boolean stopped;
+
+    /**
+     * Preserving whether the previous byte was a '\r', so that a following '\n' belongs to the same line end
+     */
+    private boolean after_cr;
+
+    /**
+     * Preserving the entrances and exits met so far, and the index of the first of each
+     */
+    private int entrance_count;
+    private int exit_count;
+    private int entrance_index = -1;
+    private int exit_index = -1;
+
+    /**
+     * Preserving whether mud or water has been met
+     */
+    private boolean weighted;
+
+    /**
+     * Preserving the packed grid, grown when the estimate falls short
+     */
+    private byte[] cells;
+
+    /**
+     * Basic constructor
+     * @param size_hint     The expected size of the input in bytes, used to size the grid
+     */
+    TxtDecoder(long size_hint) {
+        cells = new byte[(int) Math.min(Math.max(16, size_hint / 4 + 1), Integer.MAX_VALUE - 8)];
+    }
+
+    /**
+     * A method responsible for decoding a slice of the input
+     * @param buffer    The bytes
+     * @param from      The first byte of the slice
+     * @param to        The end of the slice, exclusive
+     * @throws InvalidMazeException when an invalid character is met
+     * @return          false once the maze has ended, i.e. the rest of the input can be skipped
+     */
+    boolean feed(byte[] buffer, int from, int to) {
+        for (int i = from; i < to && !stopped; i++) {
+            byte b = buffer[i];
+            if (b == '\n' || b == '\r') {
+                if (b == '\n' && after_cr) {
+                    after_cr = false;   //the '\n' of a "\r\n"
+                    continue;
+                }
+                after_cr = (b == '\r');
+                endLine();
+                continue;
+            }
+            after_cr = false;
+
+            int code = CODES[b & 0xFF];
+            if (code == -1) {
+                throw new InvalidMazeException("\nMaze Invalid!");
+            }
+            if (width != -1 && column >= width) {
+                ragged = true;
+            }
+            if (!ragged) {
+                long cell = (long) rows * Math.max(width, 0) + column;
+                if (cell >= Integer.MAX_VALUE) {
+                    throw new InvalidMazeException("\nMaze too large!");
+                }
+                int index = (int) cell;
+                if ((index >>> 2) >= cells.length) {
+                    cells = Arrays.copyOf(cells, (int) Math.min((long) cells.length * 2, Integer.MAX_VALUE - 8));
+                }
+                if (code != Maze.WALL) {
+                    cells[index >>> 2] |= (byte) (code << ((index & 3) << 1));
+                    weighted |= (code == Maze.MUD || code == Maze.WATER);
+                }
+                if (b == 'e' && entrance_count == 0) {
+                    entrance_index = index;
+                }
+                if (b == 'x' && exit_count == 0) {
+                    exit_index = index;
+                }
+            }
+            if (b == 'e') {
+                entrance_count++;
+            }
+            if (b == 'x') {
+                exit_count++;
+            }
+            column++;
+        }
+        return !stopped;
+    }
+
+    /**
+     * A method responsible for closing the current line, an empty line ends the maze
+     */
+    private void endLine() {
+        if (column == 0) {
+            stopped = true;
+            return;
+        }
+        if (width == -1) {
+            width = column;
+        } else if (column != width) {
+            ragged = true;
+        }
+        rows++;
+        column = 0;
+    }
+
+    /**
+     * A method responsible for ending the input, checking the maze and storing it
+     * @param maze      The maze to store the grid, the shape, the entrance and the exit into
+     * @throws RaggedMazeException when the maze read in is ragged or empty
+     * @throws NoEntranceException when the maze has no entrance
+     * @throws MultipleEntranceException when the maze has multiple entrance
+     * @throws NoExitException when the maze has no exit
+     * @throws MultipleExitException when the maze has multiple exit
+     */
+    void finish(Maze maze) {
+        //the last line may end at the end of the input
+        if (!stopped && column > 0) {
+            endLine();
+        }
+
+        //same order of checks as the original loader
+        if (ragged || rows == 0) {
+            throw new RaggedMazeException("\nRagged Maze!");
+        }
+        if (entrance_count == 0) {
+            throw new NoEntranceException("\nNo Entrance!");
+        }
+        if (entrance_count > 1) {
+            throw new MultipleEntranceException("\nMultiple Entrances!");
+        }
+        if (exit_count == 0) {
+            throw new NoExitException("\nNo Exit!");
+        }
+        if (exit_count > 1) {
+            throw new MultipleExitException("\nMultiple Exits!");
+        }
+
+        int length = Maze.packedLength(width * rows);
+        maze.load(width, rows, ByteBuffer.wrap(cells.length == length ? cells : Arrays.copyOf(cells, length)),
+                entrance_index, exit_index, weighted);
+    }
+}
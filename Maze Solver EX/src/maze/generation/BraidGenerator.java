@@ -0,0 +1,106 @@
+package maze.generation;
+
+import java.util.SplittableRandom;
+
+
+/**
+ * Class providing a braided maze: a recursive backtracker maze whose dead ends are then removed by knocking down
+ * one more wall, preferably into another dead end. Braided mazes contain loops, so there are several routes
+ * from the entrance to the exit
+ */
+public class BraidGenerator extends MazeGenerator {
+
+    /**
+     * Preserving the maze the dead ends are removed from
+     */
+    private final RecursiveBacktrackerGenerator perfect;
+
+    /**
+     * Preserving the share of the dead ends to be removed
+     */
+    private final double braid;
+
+    /**
+     * Basic constructor, every dead end is removed
+     * @param w     The number of columns, odd and at least 3
+     * @param h     The number of rows, odd and at least 3
+     * @param s     The seed of the random generator
+     */
+    public BraidGenerator(int w, int h, long s) {
+        this(w, h, s, 1.0);
+    }
+
+    /**
+     * A method responsible for instantiating the generator with a given share of dead ends to be removed
+     * @param w     The number of columns, odd and at least 3
+     * @param h     The number of rows, odd and at least 3
+     * @param s     The seed of the random generator
+     * @param b     The share of the dead ends to be removed, between 0 and 1
+     */
+    public BraidGenerator(int w, int h, long s, double b) {
+        super(w, h, s);
+        if (b < 0 || b > 1) {
+            throw new IllegalArgumentException("Invalid braid share: " + b);
+        }
+        perfect = new RecursiveBacktrackerGenerator(w, h, s);
+        braid = b;
+    }
+
+    @Override
+    void carve(CellGrid grid, SplittableRandom random) {
+        perfect.carve(grid, random);
+
+        int room_count = roomColumns(grid) * roomRows(grid);
+        int[] neighbours = new int[4];
+        int[] options = new int[4];
+        int[] scratch = new int[4];
+        for (int room = 0; room < room_count; room++) {
+            int count = neighbours(grid, room, neighbours);
+            int open = 0;
+            for (int i = 0; i < count; i++) {
+                if (isConnected(grid, room, neighbours[i])) {
+                    open++;
+                }
+            }
+            if (open != 1 || random.nextDouble() >= braid) {
+                continue;
+            }
+
+            //prefer walls leading into another dead end, so that one wall removes two dead ends
+            int option_count = 0;
+            for (int i = 0; i < count; i++) {
+                if (!isConnected(grid, room, neighbours[i]) && isDeadEnd(grid, neighbours[i], scratch)) {
+                    options[option_count++] = neighbours[i];
+                }
+            }
+            if (option_count == 0) {
+                for (int i = 0; i < count; i++) {
+                    if (!isConnected(grid, room, neighbours[i])) {
+                        options[option_count++] = neighbours[i];
+                    }
+                }
+            }
+            if (option_count > 0) {
+                connect(grid, room, options[random.nextInt(option_count)]);
+            }
+        }
+    }
+
+    /**
+     * A method responsible for verifying whether a room has exactly one open wall
+     * @param grid          The grid
+     * @param room          The room
+     * @param neighbours    A scratch array at least 4 long
+     * @return              true if the room is a dead end
+     */
+    private static boolean isDeadEnd(CellGrid grid, int room, int[] neighbours) {
+        int count = neighbours(grid, room, neighbours);
+        int open = 0;
+        for (int i = 0; i < count; i++) {
+            if (isConnected(grid, room, neighbours[i])) {
+                open++;
+            }
+        }
+        return open == 1;
+    }
+}
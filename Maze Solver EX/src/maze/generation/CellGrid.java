@@ -0,0 +1,131 @@
+package maze.generation;
+
+import maze.Maze;
+
+import java.io.IOException;
+
+
+/**
+ * Class providing the grid a generator carves into, packed two bits per cell in the same layout as {@link Maze},
+ * so that neither writing the 'txt' file nor building the maze needs one object per cell
+ */
+class CellGrid {
+
+    /**
+     * Preserving the width and the height of the grid
+     */
+    private final int width;
+    private final int height;
+
+    /**
+     * Preserving the cells, four per byte, every cell starts as a wall
+     */
+    private final byte[] cells;
+
+    /**
+     * Preserving the indices of the entrance and the exit
+     */
+    private int entrance_index = -1;
+    private int exit_index = -1;
+
+    /**
+     * Basic constructor
+     * @param w     The number of columns
+     * @param h     The number of rows
+     */
+    CellGrid(int w, int h) {
+        width = w;
+        height = h;
+        cells = new byte[(int) (((long) w * h + 3) >>> 2)];
+    }
+
+    /**
+     * A method responsible for returning the width of the grid
+     * @return      The number of columns
+     */
+    int getWidth() {
+        return width;
+    }
+
+    /**
+     * A method responsible for returning the height of the grid
+     * @return      The number of rows
+     */
+    int getHeight() {
+        return height;
+    }
+
+    /**
+     * A method responsible for reading the code of a cell
+     * @param row       The row of the cell
+     * @param column    The column of the cell
+     * @return          The cell code, see {@link Maze#WALL}
+     */
+    int get(int row, int column) {
+        int index = row * width + column;
+        return (cells[index >>> 2] >>> ((index & 3) << 1)) & 3;
+    }
+
+    /**
+     * A method responsible for writing the code of a cell
+     * @param row       The row of the cell
+     * @param column    The column of the cell
+     * @param code      The cell code, see {@link Maze#WALL}
+     */
+    void set(int row, int column, int code) {
+        int index = row * width + column;
+        int shift = (index & 3) << 1;
+        cells[index >>> 2] = (byte) ((cells[index >>> 2] & ~(3 << shift)) | (code << shift));
+    }
+
+    /**
+     * A method responsible for turning a cell into a corridor
+     * @param row       The row of the cell
+     * @param column    The column of the cell
+     */
+    void open(int row, int column) {
+        set(row, column, Maze.CORRIDOR);
+    }
+
+    /**
+     * A method responsible for placing the entrance and the exit, both become corridors
+     * @param entrance_row      The row of the entrance
+     * @param entrance_column   The column of the entrance
+     * @param exit_row          The row of the exit
+     * @param exit_column       The column of the exit
+     */
+    void setEnds(int entrance_row, int entrance_column, int exit_row, int exit_column) {
+        open(entrance_row, entrance_column);
+        open(exit_row, exit_column);
+        entrance_index = entrance_row * width + entrance_column;
+        exit_index = exit_row * width + exit_column;
+    }
+
+    /**
+     * A method responsible for verifying whether a cell is the entrance or the exit
+     * @param row       The row of the cell
+     * @param column    The column of the cell
+     * @return          true if the cell is the entrance or the exit
+     */
+    boolean isEnd(int row, int column) {
+        int index = row * width + column;
+        return index == entrance_index || index == exit_index;
+    }
+
+    /**
+     * A method responsible for building a maze from the grid
+     * @return      The maze
+     */
+    Maze toMaze() {
+        return Maze.fromCells(width, height, cells, entrance_index, exit_index);
+    }
+
+    /**
+     * A method responsible for writing the grid in the 'txt' format
+     * @param dst       The path of the file to be written
+     * @throws IOException when the file cannot be written
+     */
+    void writeTxt(String dst) throws IOException {
+        toMaze().toTxt(dst);
+    }
+}
@@ -0,0 +1,90 @@
+package maze.generation;
+
+import java.util.SplittableRandom;
+
+
+/**
+ * Class providing a randomized Kruskal's algorithm: the walls between rooms are knocked down in random order
+ * whenever the rooms on both sides are not connected yet, tracked with a union-find.
+ * The result is a perfect maze without the long corridors of the backtracker
+ */
+public class KruskalGenerator extends MazeGenerator {
+
+    /**
+     * Basic constructor
+     * @param w     The number of columns, odd and at least 3
+     * @param h     The number of rows, odd and at least 3
+     * @param s     The seed of the random generator
+     */
+    public KruskalGenerator(int w, int h, long s) {
+        super(w, h, s);
+    }
+
+    @Override
+    void carve(CellGrid grid, SplittableRandom random) {
+        int columns = roomColumns(grid);
+        int rows = roomRows(grid);
+        int room_count = columns * rows;
+
+        //a wall is numbered 2 * room for the wall on the right of the room and 2 * room + 1 for the wall below it
+        int[] walls = new int[(columns - 1) * rows + columns * (rows - 1)];
+        int wall_count = 0;
+        for (int room = 0; room < room_count; room++) {
+            openRoom(grid, room);
+            if (room % columns < columns - 1) {
+                walls[wall_count++] = 2 * room;
+            }
+            if (room / columns < rows - 1) {
+                walls[wall_count++] = 2 * room + 1;
+            }
+        }
+
+        //shuffle the walls
+        for (int i = wall_count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = walls[i];
+            walls[i] = walls[j];
+            walls[j] = tmp;
+        }
+
+        int[] parent = new int[room_count];
+        byte[] rank = new byte[room_count];
+        for (int i = 0; i < room_count; i++) {
+            parent[i] = i;
+        }
+        int joined = 1;
+        for (int i = 0; i < wall_count && joined < room_count; i++) {
+            int room = walls[i] >>> 1;
+            int other = (walls[i] & 1) == 0 ? room + 1 : room + columns;
+            int root = find(parent, room);
+            int other_root = find(parent, other);
+            if (root != other_root) {
+                //hang the shallower tree under the deeper one
+                if (rank[root] > rank[other_root]) {
+                    parent[other_root] = root;
+                } else {
+                    parent[root] = other_root;
+                    if (rank[root] == rank[other_root]) {
+                        rank[other_root]++;
+                    }
+                }
+                connect(grid, room, other);
+                joined++;
+            }
+        }
+    }
+
+    /**
+     * A method responsible for finding the representative of a room, halving the path on the way
+     * @param parent    The union-find parents
+     * @param room      The room
+     * @return          The representative of the set holding the room
+     */
+    private static int find(int[] parent, int room) {
+        while (parent[room] != room) {
+            parent[room] = parent[parent[room]];
+            room = parent[room];
+        }
+        return room;
+    }
+}
@@ -0,0 +1,203 @@
+package maze.generation;
+
+import maze.Maze;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+
+/**
+ * Class providing the common logic of the maze generators. A generator is seeded, so the same size and seed always
+ * give the same maze. Rooms sit at odd rows and columns and the walls between them are knocked down by the
+ * subclasses, the entrance is on the left border next to the first room and the exit on the right border next to
+ * the last one
+ */
+public abstract class MazeGenerator {
+
+    /**
+     * Preserving the size of the mazes to be generated
+     */
+    private final int width;
+    private final int height;
+
+    /**
+     * Preserving the seed of the random generator
+     */
+    private final long seed;
+
+    /**
+     * Preserving the share of the corridors to be turned into mud and into water
+     */
+    private double mud_ratio;
+    private double water_ratio;
+
+    /**
+     * Basic constructor
+     * @param w     The number of columns, odd and at least 3
+     * @param h     The number of rows, odd and at least 3
+     * @param s     The seed of the random generator
+     * @throws IllegalArgumentException when the size is not odd or too small
+     */
+    protected MazeGenerator(int w, int h, long s) {
+        if (w < 3 || h < 3 || (w & 1) == 0 || (h & 1) == 0 || (long) w * h > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The size must be odd and at least 3x3: " + w + "x" + h);
+        }
+        width = w;
+        height = h;
+        seed = s;
+    }
+
+    /**
+     * A method responsible for setting how much of the corridors become mud and water, none by default
+     * @param mud       The share of the corridors turned into mud, between 0 and 1
+     * @param water     The share of the corridors turned into water, between 0 and 1
+     * @throws IllegalArgumentException when the shares are negative or add up to more than 1
+     */
+    public void setTerrain(double mud, double water) {
+        if (mud < 0 || water < 0 || mud + water > 1) {
+            throw new IllegalArgumentException("Invalid terrain shares: " + mud + ", " + water);
+        }
+        mud_ratio = mud;
+        water_ratio = water;
+    }
+
+    /**
+     * A method responsible for generating a maze in memory
+     * @return      The generated maze
+     */
+    public Maze generate() {
+        return build().toMaze();
+    }
+
+    /**
+     * A method responsible for generating a maze straight into a 'txt' file which {@link Maze#fromTxt(String)} accepts
+     * @param dst       The path of the file to be written
+     * @throws IOException when the file cannot be written
+     */
+    public void writeTxt(String dst) throws IOException {
+        build().writeTxt(dst);
+    }
+
+    /**
+     * A method responsible for carving the rooms of the grid, every room must be reachable from every other
+     * @param grid      The grid to be carved, all walls at first
+     * @param random    The random generator to draw from
+     */
+    abstract void carve(CellGrid grid, SplittableRandom random);
+
+    /**
+     * A method responsible for building the grid: carving, placing the ends and spreading the terrain
+     * @return      The finished grid
+     */
+    private CellGrid build() {
+        SplittableRandom random = new SplittableRandom(seed);
+        CellGrid grid = new CellGrid(width, height);
+        carve(grid, random);
+        grid.setEnds(1, 0, height - 2, width - 1);
+
+        if (mud_ratio + water_ratio > 0) {
+            for (int row = 1; row < height - 1; row++) {
+                for (int column = 1; column < width - 1; column++) {
+                    if (grid.get(row, column) == Maze.CORRIDOR && !grid.isEnd(row, column)) {
+                        double draw = random.nextDouble();
+                        if (draw < mud_ratio) {
+                            grid.set(row, column, Maze.MUD);
+                        } else if (draw < mud_ratio + water_ratio) {
+                            grid.set(row, column, Maze.WATER);
+                        }
+                    }
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * A method responsible for returning the number of room columns of a grid
+     * @param grid      The grid
+     * @return          The number of rooms in a row
+     */
+    static int roomColumns(CellGrid grid) {
+        return grid.getWidth() / 2;
+    }
+
+    /**
+     * A method responsible for returning the number of room rows of a grid
+     * @param grid      The grid
+     * @return          The number of rooms in a column
+     */
+    static int roomRows(CellGrid grid) {
+        return grid.getHeight() / 2;
+    }
+
+    /**
+     * A method responsible for opening a room, rooms are numbered row by row
+     * @param grid      The grid
+     * @param room      The number of the room
+     */
+    static void openRoom(CellGrid grid, int room) {
+        int columns = roomColumns(grid);
+        grid.open(2 * (room / columns) + 1, 2 * (room % columns) + 1);
+    }
+
+    /**
+     * A method responsible for knocking down the wall between two adjacent rooms, opening both of them
+     * @param grid      The grid
+     * @param room      The number of the first room
+     * @param other     The number of the second room
+     */
+    static void connect(CellGrid grid, int room, int other) {
+        int columns = roomColumns(grid);
+        int row = 2 * (room / columns) + 1;
+        int column = 2 * (room % columns) + 1;
+        int other_row = 2 * (other / columns) + 1;
+        int other_column = 2 * (other % columns) + 1;
+        grid.open(row, column);
+        grid.open(other_row, other_column);
+        grid.open((row + other_row) / 2, (column + other_column) / 2);
+    }
+
+    /**
+     * A method responsible for verifying whether the wall between two adjacent rooms is down
+     * @param grid      The grid
+     * @param room      The number of the first room
+     * @param other     The number of the second room
+     * @return          true if the rooms are connected
+     */
+    static boolean isConnected(CellGrid grid, int room, int other) {
+        int columns = roomColumns(grid);
+        int row = 2 * (room / columns) + 1;
+        int column = 2 * (room % columns) + 1;
+        int other_row = 2 * (other / columns) + 1;
+        int other_column = 2 * (other % columns) + 1;
+        return grid.get((row + other_row) / 2, (column + other_column) / 2) != Maze.WALL;
+    }
+
+    /**
+     * A method responsible for writing the neighbouring rooms of a room into an array
+     * @param grid          The grid
+     * @param room          The number of the room
+     * @param neighbours    The array to be filled, at least 4 long
+     * @return              The number of neighbours written
+     */
+    static int neighbours(CellGrid grid, int room, int[] neighbours) {
+        int columns = roomColumns(grid);
+        int rows = roomRows(grid);
+        int x = room % columns;
+        int y = room / columns;
+        int count = 0;
+        if (y > 0) {
+            neighbours[count++] = room - columns;
+        }
+        if (y < rows - 1) {
+            neighbours[count++] = room + columns;
+        }
+        if (x > 0) {
+            neighbours[count++] = room - 1;
+        }
+        if (x < columns - 1) {
+            neighbours[count++] = room + 1;
+        }
+        return count;
+    }
+}
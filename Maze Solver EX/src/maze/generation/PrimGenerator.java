@@ -0,0 +1,70 @@
+package maze.generation;
+
+import java.util.SplittableRandom;
+
+
+/**
+ * Class providing a randomized Prim's algorithm: the maze grows from one room by attaching a random frontier room
+ * to a random room already in the maze. The result is a perfect maze with many short dead ends
+ */
+public class PrimGenerator extends MazeGenerator {
+
+    /**
+     * The states of a room
+     */
+    private static final byte OUTSIDE = 0;
+    private static final byte FRONTIER = 1;
+    private static final byte INSIDE = 2;
+
+    /**
+     * Basic constructor
+     * @param w     The number of columns, odd and at least 3
+     * @param h     The number of rows, odd and at least 3
+     * @param s     The seed of the random generator
+     */
+    public PrimGenerator(int w, int h, long s) {
+        super(w, h, s);
+    }
+
+    @Override
+    void carve(CellGrid grid, SplittableRandom random) {
+        int room_count = roomColumns(grid) * roomRows(grid);
+        byte[] state = new byte[room_count];
+        int[] frontier = new int[room_count];
+        int frontier_size = 0;
+        int[] neighbours = new int[4];
+        int[] options = new int[4];
+
+        int room = random.nextInt(room_count);
+        while (true) {
+            //attach the room and push its outside neighbours to the frontier
+            state[room] = INSIDE;
+            openRoom(grid, room);
+            int count = neighbours(grid, room, neighbours);
+            for (int i = 0; i < count; i++) {
+                if (state[neighbours[i]] == OUTSIDE) {
+                    state[neighbours[i]] = FRONTIER;
+                    frontier[frontier_size++] = neighbours[i];
+                }
+            }
+            if (frontier_size == 0) {
+                return;
+            }
+
+            //take a random frontier room out, swapping the last one into its place
+            int pick = random.nextInt(frontier_size);
+            room = frontier[pick];
+            frontier[pick] = frontier[--frontier_size];
+
+            //connect it to a random neighbour already inside the maze
+            count = neighbours(grid, room, neighbours);
+            int option_count = 0;
+            for (int i = 0; i < count; i++) {
+                if (state[neighbours[i]] == INSIDE) {
+                    options[option_count++] = neighbours[i];
+                }
+            }
+            connect(grid, room, options[random.nextInt(option_count)]);
+        }
+    }
+}
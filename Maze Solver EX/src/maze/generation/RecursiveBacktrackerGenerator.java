@@ -0,0 +1,72 @@
+package maze.generation;
+
+import java.util.SplittableRandom;
+
+
+/**
+ * Class providing a recursive backtracker: a random walk that carves into unvisited rooms and backs up when stuck.
+ * The result is a perfect maze with long winding corridors. Instead of a stack, every room remembers the room it
+ * was entered from, so the walk needs one byte per room
+ */
+public class RecursiveBacktrackerGenerator extends MazeGenerator {
+
+    /**
+     * Basic constructor
+     * @param w     The number of columns, odd and at least 3
+     * @param h     The number of rows, odd and at least 3
+     * @param s     The seed of the random generator
+     */
+    public RecursiveBacktrackerGenerator(int w, int h, long s) {
+        super(w, h, s);
+    }
+
+    @Override
+    void carve(CellGrid grid, SplittableRandom random) {
+        int columns = roomColumns(grid);
+        int room_count = columns * roomRows(grid);
+
+        //0 = not visited, 1..4 = entered from the room above, below, on the left, on the right, 5 = the start
+        byte[] came_from = new byte[room_count];
+        int[] neighbours = new int[4];
+        int[] options = new int[4];
+        int room = random.nextInt(room_count);
+        came_from[room] = 5;
+        openRoom(grid, room);
+
+        while (true) {
+            int count = neighbours(grid, room, neighbours);
+            int option_count = 0;
+            for (int i = 0; i < count; i++) {
+                if (came_from[neighbours[i]] == 0) {
+                    options[option_count++] = neighbours[i];
+                }
+            }
+
+            if (option_count > 0) {
+                int next = options[random.nextInt(option_count)];
+                connect(grid, room, next);
+                came_from[next] = (byte) (next == room + columns ? 1 : next == room - columns ? 2 : next == room + 1 ? 3 : 4);
+                room = next;
+            } else {
+                //back up to the room this one was entered from, the walk is over at the start
+                switch (came_from[room])
+                {
+                    case 1:
+                        room -= columns;
+                        break;
+                    case 2:
+                        room += columns;
+                        break;
+                    case 3:
+                        room -= 1;
+                        break;
+                    case 4:
+                        room += 1;
+                        break;
+                    default:
+                        return;
+                }
+            }
+        }
+    }
+}
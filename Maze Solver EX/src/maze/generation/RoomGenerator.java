@@ -0,0 +1,112 @@
+package maze.generation;
+
+import maze.Maze;
+
+import java.util.SplittableRandom;
+
+
+/**
+ * Class providing open-room mazes: the maze is split into square chambers by straight walls, and every wall
+ * between two chambers gets one door at a random place. Open chambers are the worst case for breadth-first search
+ * and the best case for jump point search
+ */
+public class RoomGenerator extends MazeGenerator {
+
+    /**
+     * The default width of a chamber, walls excluded
+     */
+    public static final int DEFAULT_ROOM_SIZE = 15;
+
+    /**
+     * Preserving the width of a chamber, walls excluded
+     */
+    private final int room_size;
+
+    /**
+     * Basic constructor, the chambers are {@link #DEFAULT_ROOM_SIZE} cells wide
+     * @param w     The number of columns, odd and at least 3
+     * @param h     The number of rows, odd and at least 3
+     * @param s     The seed of the random generator
+     */
+    public RoomGenerator(int w, int h, long s) {
+        this(w, h, s, DEFAULT_ROOM_SIZE);
+    }
+
+    /**
+     * A method responsible for instantiating the generator with a given chamber size
+     * @param w     The number of columns, odd and at least 3
+     * @param h     The number of rows, odd and at least 3
+     * @param s     The seed of the random generator
+     * @param size  The width of a chamber, walls excluded, at least 1
+     */
+    public RoomGenerator(int w, int h, long s, int size) {
+        super(w, h, s);
+        if (size < 1) {
+            throw new IllegalArgumentException("Invalid room size: " + size);
+        }
+        room_size = size;
+    }
+
+    @Override
+    void carve(CellGrid grid, SplittableRandom random) {
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        int spacing = room_size + 1;
+
+        //open the inside of every chamber, walls stay on every spacing-th row and column
+        for (int row = 1; row < height - 1; row++) {
+            if (isWallLine(row, height, spacing)) {
+                continue;
+            }
+            for (int column = 1; column < width - 1; column++) {
+                if (!isWallLine(column, width, spacing)) {
+                    grid.open(row, column);
+                }
+            }
+        }
+
+        //one door in every stretch of wall between two crossings
+        for (int row = spacing; row < height - 1; row += spacing) {
+            if (!isWallLine(row, height, spacing)) {
+                break;
+            }
+            for (int start = 0; start < width - 1; start = nextLine(start, width, spacing)) {
+                int end = nextLine(start, width, spacing);
+                grid.set(row, start + 1 + random.nextInt(end - start - 1), Maze.CORRIDOR);
+            }
+        }
+        for (int column = spacing; column < width - 1; column += spacing) {
+            if (!isWallLine(column, width, spacing)) {
+                break;
+            }
+            for (int start = 0; start < height - 1; start = nextLine(start, height, spacing)) {
+                int end = nextLine(start, height, spacing);
+                grid.set(start + 1 + random.nextInt(end - start - 1), column, Maze.CORRIDOR);
+            }
+        }
+    }
+
+    /**
+     * A method responsible for verifying whether a row or a column is a wall line. The last line before the border
+     * is never a wall, so that the chambers next to the border are at least one cell wide
+     * @param line      The row or the column
+     * @param length    The height or the width of the maze
+     * @param spacing   The distance between two wall lines
+     * @return          true if the line is a wall
+     */
+    private static boolean isWallLine(int line, int length, int spacing) {
+        return line == 0 || line == length - 1 || (line % spacing == 0 && line < length - 2);
+    }
+
+    /**
+     * A method responsible for finding the next wall line
+     * @param line      The current wall line
+     * @param length    The height or the width of the maze
+     * @param spacing   The distance between two wall lines
+     * @return          The next wall line
+     */
+    private static int nextLine(int line, int length, int spacing) {
+        int next = line + spacing;
+        return isWallLine(next, length, spacing) ? next : length - 1;
+    }
+}
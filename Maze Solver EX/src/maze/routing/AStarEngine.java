@@ -0,0 +1,148 @@
+package maze.routing;
+
+import maze.InvalidMazeException;
+import maze.Maze;
+import java.util.Arrays;
+
+
+/**
+ * Class providing an A* search engine with a manhattan heuristic. The open set is an indexed binary heap
+ * ordered by f = g + h, ties being broken towards the smaller h, so the route returned is always a cheapest one.
+ * Every move costs at least one, so the heuristic stays admissible on mazes with mud and water
+ */
+class AStarEngine extends SearchEngine {
+
+    /**
+     * Preserving the cost of the best known route from the entrance to every cell, Integer.MAX_VALUE if unknown
+     */
+    private final int[] g_score;
+
+    /**
+     * Preserving the parent of every discovered cell, -1 for undiscovered cells and the entrance being its own parent
+     */
+    private final int[] parent;
+
+    /**
+     * Preserving the expanded cells as a bitset, one bit per cell
+     */
+    private final CellSet closed;
+
+    /**
+     * Preserving the cells discovered but not yet expanded
+     */
+    private final IndexedMinHeap open;
+
+    /**
+     * Preserving the order in which the neighbours of a cell are enumerated
+     */
+    private final Maze.Direction[] order;
+
+    /**
+     * Basic constructor
+     * @param m     The maze to be solved
+     * @param o     The order in which neighbours are enumerated
+     */
+    AStarEngine(Maze m, Maze.Direction[] o) {
+        super(m);
+        order = o;
+        g_score = new int[m.getCellCount()];
+        Arrays.fill(g_score, Integer.MAX_VALUE);
+        parent = new int[m.getCellCount()];
+        Arrays.fill(parent, -1);
+        closed = new CellSet(m.getCellCount());
+        open = new IndexedMinHeap(m.getCellCount());
+
+        g_score[head] = 0;
+        parent[head] = head;
+        reach(head);
+        open.insertOrDecrease(head, key(0, heuristic(head)));
+    }
+
+    @Override
+    void expand() throws NoRouteFoundException {
+        //this case: every reachable cell has been expanded
+        if (open.isEmpty()) {
+            throw new NoRouteFoundException("I give up, no route found!");
+        }
+        head = open.poll();
+        closed.add(head);
+        expansions++;
+
+        //with a consistent heuristic the exit is settled with its optimal cost once it is expanded
+        if (head == maze.getExitIndex()) {
+            finished = true;
+            return;
+        }
+
+        for (Maze.Direction dir : order) {
+            int next = maze.getAdjacentIndex(head, dir);
+            if (next == -1 || closed.contains(next) || !maze.isNavigable(next)) {
+                continue;
+            }
+            int tentative = g_score[head] + maze.getCost(next);
+            if (tentative < g_score[next]) {
+                if (parent[next] == -1) {
+                    reach(next);
+                }
+                g_score[next] = tentative;
+                parent[next] = head;
+                open.insertOrDecrease(next, key(tentative, heuristic(next)));
+            }
+        }
+    }
+
+    @Override
+    int[] route() {
+        return walkBack(parent, head);
+    }
+
+    @Override
+    void saveState(StateWriter out) {
+        //the cost of a cell is its parent's plus its own, since the parent was expanded with its final cost
+        out.putParents(parent, visited, maze.getEntranceIndex(), maze.getWidth());
+        out.putCells(open.toArray());
+    }
+
+    @Override
+    void restoreState(StateReader in, int[] route) {
+        int entrance = maze.getEntranceIndex();
+        for (int cell : in.getParents(maze, parent, visited, entrance)) {
+            g_score[cell] = (cell == entrance) ? 0 : g_score[parent[cell]] + maze.getCost(cell);
+        }
+
+        //every visited cell is either waiting in the open set or expanded
+        closed.copyFrom(visited);
+        open.clear();
+        for (int cell : in.getCells(visited, maze.getCellCount())) {
+            if (!closed.contains(cell)) {
+                throw new InvalidMazeException("\nRoute Invalid!");
+            }
+            closed.remove(cell);
+            open.insertOrDecrease(cell, key(g_score[cell], heuristic(cell)));
+        }
+        if (!visited.contains(head)) {
+            throw new InvalidMazeException("\nRoute Invalid!");
+        }
+    }
+
+    /**
+     * A method responsible for computing the manhattan distance from a cell to the exit
+     * @param index     The index of the cell
+     * @return          the heuristic cost of the cell
+     */
+    private int heuristic(int index) {
+        int width = maze.getWidth();
+        int exit = maze.getExitIndex();
+        return Math.abs(index % width - exit % width) + Math.abs(index / width - exit / width);
+    }
+
+    /**
+     * A method responsible for packing the priority of a cell into a heap key, ordered by f then by h
+     * @param g     The cost from the entrance
+     * @param h     The heuristic cost to the exit
+     * @return      the heap key
+     */
+    private static long key(int g, int h) {
+        return ((long) (g + h) << 32) | h;
+    }
+}
@@ -0,0 +1,255 @@
+package maze.routing;
+
+import maze.InvalidMazeException;
+import maze.Maze;
+import java.util.Arrays;
+
+
+/**
+ * Class providing a bidirectional breadth-first search engine, growing one search from the entrance and one from
+ * the exit. Whole levels are expanded at a time, always on the side with the smaller frontier. Once a level is
+ * complete and the two searches have met, the best meeting point found lies on a route through the fewest cells:
+ * any shorter route would have had a cell discovered by both sides already. Like {@link BreadthFirstEngine},
+ * the cost of mud and water is ignored
+ */
+class BidirectionalEngine extends SearchEngine {
+
+    /**
+     * Preserving the distance of every cell from the entrance and from the exit, -1 for undiscovered cells
+     */
+    private final int[] forward_distance;
+    private final int[] backward_distance;
+
+    /**
+     * Preserving the cells discovered but not yet expanded, on each side
+     */
+    private final IntRingQueue forward_open;
+    private final IntRingQueue backward_open;
+
+    /**
+     * Preserving the side of the level being expanded, and the number of its cells left to expand
+     */
+    private boolean forward_level;
+    private int level_remaining;
+
+    /**
+     * Preserving whether the head was expanded by the search from the entrance
+     */
+    private boolean head_forward = true;
+
+    /**
+     * Preserving the best meeting cell found so far and the length of the route through it
+     */
+    private int meeting = -1;
+    private int best = Integer.MAX_VALUE;
+
+    /**
+     * Preserving the order in which the neighbours of a cell are enumerated
+     */
+    private final Maze.Direction[] order;
+
+    /**
+     * Basic constructor
+     * @param m     The maze to be solved
+     * @param o     The order in which neighbours are enumerated
+     */
+    BidirectionalEngine(Maze m, Maze.Direction[] o) {
+        super(m);
+        order = o;
+        forward_distance = new int[m.getCellCount()];
+        Arrays.fill(forward_distance, -1);
+        backward_distance = new int[m.getCellCount()];
+        Arrays.fill(backward_distance, -1);
+        forward_open = new IntRingQueue(m.getWidth() + m.getHeight());
+        backward_open = new IntRingQueue(m.getWidth() + m.getHeight());
+
+        forward_distance[m.getEntranceIndex()] = 0;
+        forward_open.add(m.getEntranceIndex());
+        reach(m.getEntranceIndex());
+        backward_distance[m.getExitIndex()] = 0;
+        backward_open.add(m.getExitIndex());
+        reach(m.getExitIndex());
+    }
+
+    @Override
+    void expand() throws NoRouteFoundException {
+        if (level_remaining == 0) {
+            //this case: one side has run out of cells, so the two searches can never meet
+            if (forward_open.isEmpty() || backward_open.isEmpty()) {
+                throw new NoRouteFoundException("I give up, no route found!");
+            }
+            //start a new level on the side with the smaller frontier
+            forward_level = forward_open.size() <= backward_open.size();
+            level_remaining = forward_level ? forward_open.size() : backward_open.size();
+        }
+
+        IntRingQueue open = forward_level ? forward_open : backward_open;
+        int[] own = forward_level ? forward_distance : backward_distance;
+        int[] other = forward_level ? backward_distance : forward_distance;
+
+        head = open.poll();
+        head_forward = forward_level;
+        level_remaining--;
+        expansions++;
+
+        for (Maze.Direction dir : order) {
+            int next = maze.getAdjacentIndex(head, dir);
+            if (next != -1 && own[next] == -1 && maze.isNavigable(next)) {
+                own[next] = own[head] + 1;
+                reach(next);
+                open.add(next);
+                //the cell is known to both sides, so the searches meet here
+                if (other[next] != -1 && own[next] + other[next] < best) {
+                    best = own[next] + other[next];
+                    meeting = next;
+                }
+            }
+        }
+
+        //stop at the end of a level if the searches have met
+        if (level_remaining == 0 && meeting != -1) {
+            head = maze.getExitIndex();
+            finished = true;
+        }
+    }
+
+    @Override
+    int[] route() {
+        if (finished) {
+            //join the route from the entrance to the meeting cell with the route from the meeting cell to the exit
+            int[] route = new int[best + 1];
+            walkDown(forward_distance, meeting, route, forward_distance[meeting], -1);
+            walkDown(backward_distance, meeting, route, forward_distance[meeting], 1);
+            return route;
+        }
+        int[] own = head_forward ? forward_distance : backward_distance;
+        int[] route = new int[own[head] + 1];
+        if (head_forward) {
+            walkDown(own, head, route, own[head], -1);
+        } else {
+            walkDown(own, head, route, 0, 1);
+        }
+        return route;
+    }
+
+    @Override
+    void saveState(StateWriter out) {
+        //a side's distances are rebuilt from the cells it knows, see spread
+        out.putSet(known(forward_distance), maze.getCellCount());
+        out.putSet(known(backward_distance), maze.getCellCount());
+        out.putCells(forward_open.toArray());
+        out.putCells(backward_open.toArray());
+        out.putBoolean(forward_level);
+        out.putInt(level_remaining);
+        out.putBoolean(head_forward);
+        out.putInt(meeting);
+    }
+
+    @Override
+    void restoreState(StateReader in, int[] route) {
+        CellSet forward_known = in.getSet(maze.getCellCount());
+        CellSet backward_known = in.getSet(maze.getCellCount());
+        spread(forward_distance, forward_known, maze.getEntranceIndex());
+        spread(backward_distance, backward_known, maze.getExitIndex());
+        forward_open.clear();
+        for (int cell : in.getCells(forward_known, maze.getCellCount())) {
+            forward_open.add(cell);
+        }
+        backward_open.clear();
+        for (int cell : in.getCells(backward_known, maze.getCellCount())) {
+            backward_open.add(cell);
+        }
+        forward_level = in.getBoolean();
+        level_remaining = in.getInt();
+        head_forward = in.getBoolean();
+        meeting = in.getInt();
+
+        //the meeting cell is known to both sides, and the head to the side which expanded it
+        boolean valid = visited.containsAll(forward_known) && visited.containsAll(backward_known)
+                && level_remaining >= 0 && level_remaining <= (forward_level ? forward_open : backward_open).size();
+        if (meeting != -1) {
+            valid &= meeting >= 0 && meeting < maze.getCellCount()
+                    && forward_known.contains(meeting) && backward_known.contains(meeting);
+            best = valid ? forward_distance[meeting] + backward_distance[meeting] : best;
+        }
+        valid &= finished ? (meeting != -1 && head == maze.getExitIndex())
+                : (head_forward ? forward_known : backward_known).contains(head);
+        if (!valid) {
+            throw new InvalidMazeException("\nRoute Invalid!");
+        }
+    }
+
+    /**
+     * A method responsible for collecting the cells a side has discovered
+     * @param distance  The distances of the side
+     * @return          the cells whose distance is known
+     */
+    private CellSet known(int[] distance) {
+        CellSet known = new CellSet(distance.length);
+        for (int cell = visited.next(0); cell != -1; cell = visited.next(cell + 1)) {
+            if (distance[cell] != -1) {
+                known.add(cell);
+            }
+        }
+        return known;
+    }
+
+    /**
+     * A method responsible for rebuilding the distances of a side from the cells it has discovered. A side finds
+     * the cells level by level, so every cell on a shortest route to a discovered cell is discovered too, and a
+     * breadth-first search through the discovered cells alone gives back the same distances
+     * @param distance  The distances of the side, to be filled
+     * @param known     The cells the side has discovered
+     * @param origin    The cell the side starts from
+     * @throws InvalidMazeException when the origin is not known or a known cell cannot be reached from it
+     */
+    private void spread(int[] distance, CellSet known, int origin) {
+        if (!known.contains(origin)) {
+            throw new InvalidMazeException("\nRoute Invalid!");
+        }
+        Arrays.fill(distance, -1);
+        IntRingQueue queue = new IntRingQueue(maze.getWidth() + maze.getHeight());
+        distance[origin] = 0;
+        queue.add(origin);
+        int reached = 1;
+        while (!queue.isEmpty()) {
+            int cell = queue.poll();
+            for (Maze.Direction dir : order) {
+                int next = maze.getAdjacentIndex(cell, dir);
+                if (next != -1 && distance[next] == -1 && known.contains(next)) {
+                    distance[next] = distance[cell] + 1;
+                    queue.add(next);
+                    reached++;
+                }
+            }
+        }
+        if (reached != known.count()) {
+            throw new InvalidMazeException("\nRoute Invalid!");
+        }
+    }
+
+    /**
+     * A method responsible for writing a route by repeatedly stepping to a neighbour one closer to the origin
+     * of a search, until the origin is reached
+     * @param distance  The distances of the search
+     * @param from      The cell to start from
+     * @param route     The array to write the route into
+     * @param position  The position of the starting cell in the route
+     * @param stride    The direction in which the route array is filled, -1 or 1
+     */
+    private void walkDown(int[] distance, int from, int[] route, int position, int stride) {
+        int cell = from;
+        route[position] = cell;
+        while (distance[cell] > 0) {
+            for (Maze.Direction dir : order) {
+                int next = maze.getAdjacentIndex(cell, dir);
+                if (next != -1 && distance[next] == distance[cell] - 1) {
+                    cell = next;
+                    break;
+                }
+            }
+            position += stride;
+            route[position] = cell;
+        }
+    }
+}
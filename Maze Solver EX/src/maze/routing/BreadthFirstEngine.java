@@ -0,0 +1,93 @@
+package maze.routing;
+
+import maze.InvalidMazeException;
+import maze.Maze;
+import java.util.Arrays;
+
+
+/**
+ * Class providing a breadth-first search engine, which always finds a route through the fewest cells.
+ * The cost of mud and water is ignored, mode {@link RouteFinder#DIJKSTRA} takes it into account
+ */
+class BreadthFirstEngine extends SearchEngine {
+
+    /**
+     * Preserving the parent of every visited cell, -1 for unvisited cells and the entrance being its own parent
+     */
+    private final int[] parent;
+
+    /**
+     * Preserving the cells discovered but not yet expanded
+     */
+    private final IntRingQueue open;
+
+    /**
+     * Preserving the order in which the neighbours of a cell are enumerated
+     */
+    private final Maze.Direction[] order;
+
+    /**
+     * Basic constructor
+     * @param m     The maze to be solved
+     * @param o     The order in which neighbours are enumerated
+     */
+    BreadthFirstEngine(Maze m, Maze.Direction[] o) {
+        super(m);
+        order = o;
+        parent = new int[m.getCellCount()];
+        Arrays.fill(parent, -1);
+        open = new IntRingQueue(Math.max(m.getWidth(), m.getHeight()) * 2);
+
+        parent[head] = head;
+        reach(head);
+        open.add(head);
+    }
+
+    @Override
+    void expand() throws NoRouteFoundException {
+        //this case: every reachable cell has been expanded
+        if (open.isEmpty()) {
+            throw new NoRouteFoundException("I give up, no route found!");
+        }
+        head = open.poll();
+        expansions++;
+
+        for (Maze.Direction dir : order) {
+            int next = maze.getAdjacentIndex(head, dir);
+            if (next != -1 && parent[next] == -1 && maze.isNavigable(next)) {
+                parent[next] = head;
+                reach(next);
+                //the first time the exit is discovered its route is a shortest one
+                if (next == maze.getExitIndex()) {
+                    head = next;
+                    finished = true;
+                    return;
+                }
+                open.add(next);
+            }
+        }
+    }
+
+    @Override
+    int[] route() {
+        return walkBack(parent, head);
+    }
+
+    @Override
+    void saveState(StateWriter out) {
+        out.putParents(parent, visited, maze.getEntranceIndex(), maze.getWidth());
+        out.putCells(open.toArray());
+    }
+
+    @Override
+    void restoreState(StateReader in, int[] route) {
+        in.getParents(maze, parent, visited, maze.getEntranceIndex());
+        open.clear();
+        for (int cell : in.getCells(visited, maze.getCellCount())) {
+            open.add(cell);
+        }
+        if (!visited.contains(head)) {
+            throw new InvalidMazeException("\nRoute Invalid!");
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package maze.routing;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+
+/**
+ * Class providing a set of cell indices as a bitset, one bit per cell of the maze, so that adding, removing and
+ * testing a cell are single word operations. It is shared by the engines for their visited cells and by
+ * {@link RouteFinder} for the cells on the route
+ */
+class CellSet implements Serializable {
+
+    /**
+     * Preserving the bits, cell i being bit i % 64 of word i / 64
+     */
+    private final long[] words;
+
+    /**
+     * Basic constructor, creating an empty set
+     * @param cell_count    The number of cells of the maze
+     */
+    CellSet(int cell_count) {
+        words = new long[(cell_count + 63) >>> 6];
+    }
+
+    /**
+     * A method responsible for replacing the content of the set by a bitmap of bytes, as written by {@link #toBytes(int)}
+     * @param bytes     The bitmap, cell i being bit i % 8 of byte i / 8
+     */
+    void readBytes(byte[] bytes) {
+        Arrays.fill(words, 0);
+        for (int i = 0; i < bytes.length && (i >>> 3) < words.length; i++) {
+            words[i >>> 3] |= (bytes[i] & 0xFFL) << ((i & 7) << 3);
+        }
+    }
+
+    /**
+     * A method responsible for replacing the content of the set by the content of another set of the same size
+     * @param other     The other set
+     */
+    void copyFrom(CellSet other) {
+        System.arraycopy(other.words, 0, words, 0, words.length);
+    }
+
+    /**
+     * A method responsible for adding a cell
+     * @param index     The index of the cell
+     */
+    void add(int index) {
+        words[index >>> 6] |= 1L << index;
+    }
+
+    /**
+     * A method responsible for removing a cell
+     * @param index     The index of the cell
+     */
+    void remove(int index) {
+        words[index >>> 6] &= ~(1L << index);
+    }
+
+    /**
+     * A method responsible for verifying whether a cell is in the set
+     * @param index     The index of the cell
+     * @return          true if the cell is in the set
+     */
+    boolean contains(int index) {
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * A method responsible for verifying whether every cell of another set of the same size is in this set
+     * @param other     The other set
+     * @return          true if the other set is a subset of this one
+     */
+    boolean containsAll(CellSet other) {
+        for (int i = 0; i < words.length; i++) {
+            if ((other.words[i] & ~words[i]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A method responsible for finding the first cell of the set from a given index on
+     * @param from      The index to start from
+     * @return          the index of the cell, or -1 if there is none
+     */
+    int next(int from) {
+        int i = from >>> 6;
+        if (i >= words.length) {
+            return -1;
+        }
+        long word = words[i] & (-1L << from);
+        while (word == 0) {
+            if (++i == words.length) {
+                return -1;
+            }
+            word = words[i];
+        }
+        return (i << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * A method responsible for counting the cells of the set
+     * @return      the number of cells
+     */
+    int count() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * A method responsible for converting the set to a bitmap of bytes
+     * @param cell_count    The number of cells of the maze
+     * @return              the bitmap, cell i being bit i % 8 of byte i / 8
+     */
+    byte[] toBytes(int cell_count) {
+        byte[] bytes = new byte[(cell_count + 7) >>> 3];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (words[i >>> 3] >>> ((i & 7) << 3));
+        }
+        return bytes;
+    }
+}
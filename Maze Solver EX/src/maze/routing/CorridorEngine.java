@@ -0,0 +1,209 @@
+package maze.routing;
+
+import maze.InvalidMazeException;
+import maze.Maze;
+import maze.MazeGraph;
+import java.util.Arrays;
+
+
+/**
+ * Class providing an A* search engine on the corridor graph of the maze, see {@link MazeGraph}.
+ * A whole corridor is crossed by a single relaxation, so only the entrance, the exit, dead ends and junctions go
+ * through the open set. Every edge costs at least the manhattan distance between its ends, so the manhattan heuristic
+ * stays consistent and the route returned is always a cheapest one. The route is walked back to cells through the
+ * graph, and the cells of a corridor are visited as soon as the corridor is looked along
+ */
+class CorridorEngine extends SearchEngine {
+
+    /**
+     * Preserving the corridor graph of the maze
+     */
+    private final MazeGraph graph;
+
+    /**
+     * Preserving the node of the exit, and the node expanded last
+     */
+    private final int exit_node;
+    private int head_node;
+
+    /**
+     * Preserving the cost of the best known route from the entrance to every node, Integer.MAX_VALUE if unknown
+     */
+    private final int[] g_score;
+
+    /**
+     * Preserving the parent of every discovered node and the edge leading from it, -1 for undiscovered nodes and
+     * the entrance being its own parent
+     */
+    private final int[] parent;
+    private final int[] parent_edge;
+
+    /**
+     * Preserving the expanded nodes as a bitset, one bit per node
+     */
+    private final CellSet closed;
+
+    /**
+     * Preserving the nodes discovered but not yet expanded
+     */
+    private final IndexedMinHeap open;
+
+    /**
+     * Preserving the cells of the corridor being looked along, grown to the longest corridor seen
+     */
+    private int[] path = new int[16];
+
+    /**
+     * Basic constructor
+     * @param m     The maze to be solved
+     */
+    CorridorEngine(Maze m) {
+        super(m);
+        graph = m.getGraph();
+        int node_count = graph.getNodeCount();
+        g_score = new int[node_count];
+        Arrays.fill(g_score, Integer.MAX_VALUE);
+        parent = new int[node_count];
+        Arrays.fill(parent, -1);
+        parent_edge = new int[node_count];
+        closed = new CellSet(node_count);
+        open = new IndexedMinHeap(node_count);
+
+        //the entrance and the exit are always nodes
+        head_node = graph.getNode(head);
+        exit_node = graph.getNode(m.getExitIndex());
+        g_score[head_node] = 0;
+        parent[head_node] = head_node;
+        reach(head);
+        open.insertOrDecrease(head_node, key(0, heuristic(head)));
+    }
+
+    @Override
+    void expand() throws NoRouteFoundException {
+        //this case: every reachable node has been expanded
+        if (open.isEmpty()) {
+            throw new NoRouteFoundException("I give up, no route found!");
+        }
+        head_node = open.poll();
+        head = graph.getCell(head_node);
+        closed.add(head_node);
+        expansions++;
+
+        //with a consistent heuristic the exit is settled with its optimal cost once it is expanded
+        if (head_node == exit_node) {
+            finished = true;
+            return;
+        }
+
+        for (int edge = graph.getFirstEdge(head_node); edge < graph.getEndEdge(head_node); edge++) {
+            int next = graph.getTarget(edge);
+            if (closed.contains(next)) {
+                continue;
+            }
+            visitCorridor(edge);
+            int tentative = g_score[head_node] + graph.getWeight(edge);
+            if (tentative < g_score[next]) {
+                g_score[next] = tentative;
+                parent[next] = head_node;
+                parent_edge[next] = edge;
+                open.insertOrDecrease(next, key(tentative, heuristic(graph.getCell(next))));
+            }
+        }
+    }
+
+    @Override
+    int[] route() {
+        int[] nodes = walkBack(parent, head_node);
+        int[] edges = new int[nodes.length - 1];
+        for (int i = 1; i < nodes.length; i++) {
+            edges[i - 1] = parent_edge[nodes[i]];
+        }
+        return graph.toCells(nodes[0], edges);
+    }
+
+    @Override
+    void saveState(StateWriter out) {
+        //the cost of a node is its parent's plus the weight of the edge between them, the parent being expanded
+        int node_count = graph.getNodeCount();
+        CellSet discovered = new CellSet(node_count);
+        for (int node = 0; node < node_count; node++) {
+            if (parent[node] != -1) {
+                discovered.add(node);
+            }
+        }
+        out.putSet(discovered, node_count);
+        out.putInts(parent_edge, discovered);
+        out.putSet(closed, node_count);
+        out.putCells(open.toArray());
+    }
+
+    @Override
+    void restoreState(StateReader in, int[] route) {
+        int node_count = graph.getNodeCount();
+        int entrance_node = graph.getNode(maze.getEntranceIndex());
+        CellSet discovered = in.getSet(node_count);
+        in.getInts(parent_edge, discovered);
+        Arrays.fill(parent, -1);
+        for (int node = discovered.next(0); node != -1; node = discovered.next(node + 1)) {
+            int edge = parent_edge[node];
+            if (node == entrance_node) {
+                parent[node] = node;
+            } else if (edge >= 0 && edge < graph.getEdgeCount() && graph.getTarget(edge) == node) {
+                parent[node] = graph.getSource(edge);
+            } else {
+                throw new InvalidMazeException("\nRoute Invalid!");
+            }
+        }
+        for (int node : StateReader.order(parent, discovered, entrance_node)) {
+            g_score[node] = (node == entrance_node) ? 0 : g_score[parent[node]] + graph.getWeight(parent_edge[node]);
+        }
+
+        closed.copyFrom(in.getSet(node_count));
+        open.clear();
+        for (int node : in.getCells(discovered, node_count)) {
+            open.insertOrDecrease(node, key(g_score[node], heuristic(graph.getCell(node))));
+        }
+        head_node = graph.getNode(head);
+        if (!discovered.containsAll(closed) || head_node == -1 || !discovered.contains(head_node)) {
+            throw new InvalidMazeException("\nRoute Invalid!");
+        }
+    }
+
+    /**
+     * A method responsible for visiting the cells of a corridor leaving the head, its target included
+     * @param edge      The edge of the corridor
+     */
+    private void visitCorridor(int edge) {
+        int length = graph.getLength(edge);
+        if (length > path.length) {
+            path = new int[Math.max(length, path.length * 2)];
+        }
+        graph.copyPath(head_node, edge, path, 0);
+        for (int i = 0; i < length; i++) {
+            if (!isVisited(path[i])) {
+                reach(path[i]);
+            }
+        }
+    }
+
+    /**
+     * A method responsible for computing the manhattan distance from a cell to the exit
+     * @param index     The index of the cell
+     * @return          the heuristic cost of the cell
+     */
+    private int heuristic(int index) {
+        int width = maze.getWidth();
+        int exit = maze.getExitIndex();
+        return Math.abs(index % width - exit % width) + Math.abs(index / width - exit / width);
+    }
+
+    /**
+     * A method responsible for packing the priority of a node into a heap key, ordered by f then by h
+     * @param g     The cost from the entrance
+     * @param h     The heuristic cost to the exit
+     * @return      the heap key
+     */
+    private static long key(int g, int h) {
+        return ((long) (g + h) << 32) | h;
+    }
+}
@@ -0,0 +1,86 @@
+package maze.routing;
+
+import maze.InvalidMazeException;
+import maze.Maze;
+
+
+/**
+ * Class providing an iterative depth-first search engine. The current route is kept on an explicit stack,
+ * so long corridors cannot overflow the call stack, and a step allocates nothing
+ */
+class DepthFirstEngine extends SearchEngine {
+
+    /**
+     * Preserving the current route, from the entrance at the bottom to the head on the top
+     */
+    private final IntStack route;
+
+    /**
+     * Preserving the order in which the neighbours of a cell are tried
+     */
+    private final Maze.Direction[] order;
+
+    /**
+     * Basic constructor
+     * @param m     The maze to be solved
+     * @param o     The order in which neighbours are tried
+     */
+    DepthFirstEngine(Maze m, Maze.Direction[] o) {
+        super(m);
+        order = o;
+        route = new IntStack(m.getWidth() + m.getHeight());
+
+        reach(head);
+        route.push(head);
+    }
+
+    @Override
+    void expand() throws NoRouteFoundException {
+        //go forward into the first unvisited neighbour, in the configured order
+        for (Maze.Direction dir : order) {
+            int next = maze.getAdjacentIndex(head, dir);
+            if (next != -1 && !isVisited(next) && maze.isNavigable(next)) {
+                reach(next);
+                route.push(next);
+                head = next;
+                expansions++;
+                finished = (next == maze.getExitIndex());
+                return;
+            }
+        }
+
+        //this case: we cannot find any solution even if we go back to the entrance
+        if (route.size() == 1) {
+            throw new NoRouteFoundException("I give up, no route found!");
+        }
+
+        //dead end, go back one step and try other neighbours next time
+        route.pop();
+        head = route.peek();
+        expansions++;
+    }
+
+    @Override
+    int[] route() {
+        return route.toArray();
+    }
+
+    @Override
+    void saveState(StateWriter out) {
+        //the stack is the route itself, which the snapshot holds anyway
+    }
+
+    @Override
+    void restoreState(StateReader in, int[] stored) {
+        if (stored.length == 0 || stored[0] != maze.getEntranceIndex() || stored[stored.length - 1] != head) {
+            throw new InvalidMazeException("\nRoute Invalid!");
+        }
+        route.clear();
+        for (int cell : stored) {
+            if (!visited.contains(cell)) {
+                throw new InvalidMazeException("\nRoute Invalid!");
+            }
+            route.push(cell);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package maze.routing;
+
+import maze.InvalidMazeException;
+import maze.Maze;
+import java.util.Arrays;
+
+
+/**
+ * Class providing a Dijkstra search engine over the terrain costs of the maze. Since every move costs a small
+ * integer, the open set is a Dial bucket queue: a ring of {@link Maze#MAX_COST} + 1 FIFO buckets indexed by the
+ * distance modulo the ring size, so inserting and removing a cell take constant time
+ */
+class DialDijkstraEngine extends SearchEngine {
+
+    /**
+     * Preserving the cost of the cheapest known route from the entrance to every cell, Integer.MAX_VALUE if unknown
+     */
+    private final int[] distance;
+
+    /**
+     * Preserving the parent of every discovered cell, -1 for undiscovered cells and the entrance being its own parent
+     */
+    private final int[] parent;
+
+    /**
+     * Preserving the settled cells as a bitset, one bit per cell
+     */
+    private final CellSet closed;
+
+    /**
+     * Preserving the buckets, a cell with distance d waiting in bucket d % buckets.length
+     */
+    private final IntRingQueue[] buckets;
+
+    /**
+     * Preserving the distance of the bucket being drained
+     */
+    private int current;
+
+    /**
+     * Preserving the number of entries over all buckets, including the outdated ones
+     */
+    private int pending;
+
+    /**
+     * Preserving the order in which the neighbours of a cell are enumerated
+     */
+    private final Maze.Direction[] order;
+
+    /**
+     * Basic constructor
+     * @param m     The maze to be solved
+     * @param o     The order in which neighbours are enumerated
+     */
+    DialDijkstraEngine(Maze m, Maze.Direction[] o) {
+        super(m);
+        order = o;
+        distance = new int[m.getCellCount()];
+        Arrays.fill(distance, Integer.MAX_VALUE);
+        parent = new int[m.getCellCount()];
+        Arrays.fill(parent, -1);
+        closed = new CellSet(m.getCellCount());
+        buckets = new IntRingQueue[Maze.MAX_COST + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new IntRingQueue(m.getWidth() + m.getHeight());
+        }
+
+        distance[head] = 0;
+        parent[head] = head;
+        reach(head);
+        buckets[0].add(head);
+        pending = 1;
+    }
+
+    @Override
+    void expand() throws NoRouteFoundException {
+        //take the next cell from the lowest non-empty bucket, skipping entries of cells settled meanwhile
+        int cell;
+        do {
+            //this case: every reachable cell has been settled
+            if (pending == 0) {
+                throw new NoRouteFoundException("I give up, no route found!");
+            }
+            IntRingQueue bucket = buckets[current % buckets.length];
+            while (bucket.isEmpty()) {
+                current++;
+                bucket = buckets[current % buckets.length];
+            }
+            cell = bucket.poll();
+            pending--;
+        } while (closed.contains(cell));
+
+        head = cell;
+        closed.add(head);
+        expansions++;
+
+        //the exit is settled with its cheapest cost once it leaves the queue
+        if (head == maze.getExitIndex()) {
+            finished = true;
+            return;
+        }
+
+        for (Maze.Direction dir : order) {
+            int next = maze.getAdjacentIndex(head, dir);
+            if (next == -1 || closed.contains(next) || !maze.isNavigable(next)) {
+                continue;
+            }
+            int tentative = distance[head] + maze.getCost(next);
+            if (tentative < distance[next]) {
+                if (parent[next] == -1) {
+                    reach(next);
+                }
+                distance[next] = tentative;
+                parent[next] = head;
+                buckets[tentative % buckets.length].add(next);
+                pending++;
+            }
+        }
+    }
+
+    @Override
+    int[] route() {
+        return walkBack(parent, head);
+    }
+
+    @Override
+    void saveState(StateWriter out) {
+        //the distance of a cell is its parent's plus its own cost, since the parent was settled with its final distance
+        out.putParents(parent, visited, maze.getEntranceIndex(), maze.getWidth());
+        out.putSet(closed, maze.getCellCount());
+        for (IntRingQueue bucket : buckets) {
+            out.putCells(bucket.toArray());
+        }
+        out.putInt(current);
+    }
+
+    @Override
+    void restoreState(StateReader in, int[] route) {
+        int entrance = maze.getEntranceIndex();
+        for (int cell : in.getParents(maze, parent, visited, entrance)) {
+            distance[cell] = (cell == entrance) ? 0 : distance[parent[cell]] + maze.getCost(cell);
+        }
+
+        //the buckets keep the outdated entries of settled cells too, so the settled cells are stored on their own
+        closed.copyFrom(in.getSet(maze.getCellCount()));
+        pending = 0;
+        for (IntRingQueue bucket : buckets) {
+            bucket.clear();
+            for (int cell : in.getCells(visited, maze.getCellCount())) {
+                bucket.add(cell);
+                pending++;
+            }
+        }
+        current = in.getInt();
+        if (current < 0 || !visited.containsAll(closed) || !visited.contains(head)) {
+            throw new InvalidMazeException("\nRoute Invalid!");
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package maze.routing;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+
+/**
+ * Class providing a binary min-heap over cell indices with long keys, supporting decrease-key through a
+ * position index kept for every cell
+ */
+class IndexedMinHeap implements Serializable {
+
+    /**
+     * Preserving the cells in heap order, and their keys in the same order
+     */
+    private int[] cells;
+    private long[] keys;
+
+    /**
+     * Preserving the number of cells in the heap
+     */
+    private int size;
+
+    /**
+     * Preserving the position of every cell in the heap, -1 for cells not in the heap
+     */
+    private final int[] position;
+
+    /**
+     * Basic constructor
+     * @param cell_count    The number of cells which may be inserted
+     */
+    IndexedMinHeap(int cell_count) {
+        position = new int[cell_count];
+        Arrays.fill(position, -1);
+        cells = new int[64];
+        keys = new long[64];
+    }
+
+    /**
+     * A method responsible for inserting a cell, or lowering its key if it is already in the heap
+     * @param cell      The index of the cell
+     * @param key       The new key, ignored if it is not lower than the current key of the cell
+     */
+    void insertOrDecrease(int cell, long key) {
+        int i = position[cell];
+        if (i == -1) {
+            if (size == cells.length) {
+                cells = Arrays.copyOf(cells, size << 1);
+                keys = Arrays.copyOf(keys, size << 1);
+            }
+            i = size++;
+        } else if (keys[i] <= key) {
+            return;
+        }
+        siftUp(i, cell, key);
+    }
+
+    /**
+     * A method responsible for removing the cell with the smallest key
+     * @return      the removed cell
+     */
+    int poll() {
+        if (size == 0) {
+            throw new IllegalStateException("Heap is empty!");
+        }
+        int top = cells[0];
+        position[top] = -1;
+        size--;
+        if (size > 0) {
+            siftDown(0, cells[size], keys[size]);
+        }
+        return top;
+    }
+
+    /**
+     * A method responsible for returning the smallest key
+     * @return      the key of the cell on the top of the heap
+     */
+    long peekKey() {
+        if (size == 0) {
+            throw new IllegalStateException("Heap is empty!");
+        }
+        return keys[0];
+    }
+
+    /**
+     * A method responsible for verifying whether a cell is waiting in the heap
+     * @param cell      The index of the cell
+     * @return          true if the cell is in the heap
+     */
+    boolean contains(int cell) {
+        return position[cell] != -1;
+    }
+
+    /**
+     * A method responsible for returning whether the heap holds no cell
+     * @return      true if the heap is empty
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * A method responsible for returning the number of cells in the heap
+     * @return      the size of the heap
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * A method responsible for removing every cell
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            position[cells[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * A method responsible for copying the cells in the order of their slots, so that inserting them again in this
+     * order into an empty heap with the same keys rebuilds the same heap
+     * @return      the cells
+     */
+    int[] toArray() {
+        return Arrays.copyOf(cells, size);
+    }
+
+    /**
+     * A method responsible for moving a cell up from a given slot until its parent is not larger
+     * @param i         The slot to start from
+     * @param cell      The cell to be placed
+     * @param key       The key of the cell
+     */
+    private void siftUp(int i, int cell, long key) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            place(i, cells[parent], keys[parent]);
+            i = parent;
+        }
+        place(i, cell, key);
+    }
+
+    /**
+     * A method responsible for moving a cell down from a given slot until no child is smaller
+     * @param i         The slot to start from
+     * @param cell      The cell to be placed
+     * @param key       The key of the cell
+     */
+    private void siftDown(int i, int cell, long key) {
+        int half = size >>> 1;
+        while (i < half) {
+            int child = (i << 1) + 1;
+            if (child + 1 < size && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            place(i, cells[child], keys[child]);
+            i = child;
+        }
+        place(i, cell, key);
+    }
+
+    /**
+     * A method responsible for writing a cell into a slot and recording its position
+     * @param i         The slot
+     * @param cell      The cell
+     * @param key       The key of the cell
+     */
+    private void place(int i, int cell, long key) {
+        cells[i] = cell;
+        keys[i] = key;
+        position[cell] = i;
+    }
+}
@@ -0,0 +1,103 @@
+package maze.routing;
+
+import java.io.Serializable;
+
+
+/**
+ * Class providing a first-in-first-out queue of primitive ints, backed by a growable ring buffer
+ */
+class IntRingQueue implements Serializable {
+
+    /**
+     * Preserving the elements, the capacity is always a power of two
+     */
+    private int[] elements;
+
+    /**
+     * Preserving the position of the first element and the number of elements
+     */
+    private int first;
+    private int size;
+
+    /**
+     * Basic constructor
+     * @param capacity     The initial capacity, rounded up to a power of two
+     */
+    IntRingQueue(int capacity) {
+        elements = new int[Math.max(16, Integer.highestOneBit(Math.max(1, capacity - 1)) << 1)];
+    }
+
+    /**
+     * A method responsible for appending an element to the end of the queue
+     * @param value     The element to be appended
+     */
+    void add(int value) {
+        if (size == elements.length) {
+            grow();
+        }
+        elements[(first + size) & (elements.length - 1)] = value;
+        size++;
+    }
+
+    /**
+     * A method responsible for removing the element at the front of the queue
+     * @return      the removed element
+     */
+    int poll() {
+        if (size == 0) {
+            throw new IllegalStateException("Queue is empty!");
+        }
+        int value = elements[first];
+        first = (first + 1) & (elements.length - 1);
+        size--;
+        return value;
+    }
+
+    /**
+     * A method responsible for copying the elements, from the front of the queue to its end
+     * @return      the elements
+     */
+    int[] toArray() {
+        int[] array = new int[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = elements[(first + i) & (elements.length - 1)];
+        }
+        return array;
+    }
+
+    /**
+     * A method responsible for returning whether the queue holds no element
+     * @return      true if the queue is empty
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * A method responsible for returning the number of elements in the queue
+     * @return      the size of the queue
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * A method responsible for removing every element
+     */
+    void clear() {
+        first = 0;
+        size = 0;
+    }
+
+    /**
+     * A method responsible for doubling the capacity, unwrapping the elements to the start of the new buffer
+     */
+    private void grow() {
+        int[] grown = new int[elements.length << 1];
+        int tail = elements.length - first;
+        System.arraycopy(elements, first, grown, 0, tail);
+        System.arraycopy(elements, 0, grown, tail, first);
+        elements = grown;
+        first = 0;
+    }
+}
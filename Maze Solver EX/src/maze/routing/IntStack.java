@@ -0,0 +1,102 @@
+package maze.routing;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+
+/**
+ * Class providing a last-in-first-out stack of primitive ints, backed by a growable array
+ */
+class IntStack implements Serializable {
+
+    /**
+     * Preserving the elements, the bottom of the stack at index 0
+     */
+    private int[] elements;
+
+    /**
+     * Preserving the number of elements
+     */
+    private int size;
+
+    /**
+     * Basic constructor
+     * @param capacity     The initial capacity
+     */
+    IntStack(int capacity) {
+        elements = new int[Math.max(16, capacity)];
+    }
+
+    /**
+     * A method responsible for pushing an element onto the stack
+     * @param value     The element to be pushed
+     */
+    void push(int value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, elements.length << 1);
+        }
+        elements[size++] = value;
+    }
+
+    /**
+     * A method responsible for removing the element on the top of the stack
+     * @return      the removed element
+     */
+    int pop() {
+        if (size == 0) {
+            throw new IllegalStateException("Stack is empty!");
+        }
+        return elements[--size];
+    }
+
+    /**
+     * A method responsible for returning the element on the top of the stack without removing it
+     * @return      the top element
+     */
+    int peek() {
+        if (size == 0) {
+            throw new IllegalStateException("Stack is empty!");
+        }
+        return elements[size - 1];
+    }
+
+    /**
+     * A method responsible for returning whether the stack holds no element
+     * @return      true if the stack is empty
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * A method responsible for returning the number of elements in the stack
+     * @return      the size of the stack
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * A method responsible for removing every element, keeping the capacity
+     */
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * A method responsible for copying the elements, from the bottom to the top of the stack
+     * @return      a new array holding the elements
+     */
+    int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    /**
+     * A method responsible for copying the elements from a position to the top of the stack
+     * @param from      The position of the first element to be copied, 0 being the bottom
+     * @return          a new array holding the elements
+     */
+    int[] toArray(int from) {
+        return Arrays.copyOfRange(elements, from, size);
+    }
+}
@@ -0,0 +1,312 @@
+package maze.routing;
+
+import maze.InvalidMazeException;
+import maze.Maze;
+import java.util.Arrays;
+
+
+/**
+ * Class providing a Jump Point Search engine for 4-connected mazes where every move costs the same.
+ * <p>
+ * Among all shortest routes, only canonical ones are searched: a route may always turn from a vertical move to
+ * a horizontal one, but it may only turn from a horizontal move to a vertical one when the cell it could have
+ * turned at one step earlier is blocked (a forced neighbour). Any shortest route can be rewritten into a canonical
+ * one of the same length by moving its vertical moves earlier, so nothing optimal is lost. Following this rule,
+ * horizontal jumps run until they reach the exit or a forced neighbour, and vertical jumps run until a horizontal
+ * jump from the current cell finds something. Only the cells where a jump stops are put into the A* open set,
+ * which skips the many symmetric routes through open areas.
+ */
+class JumpPointEngine extends SearchEngine {
+
+    /**
+     * The directions, indexed by the direction codes used in the arrival masks
+     */
+    private static final Maze.Direction[] DIRECTIONS = {Maze.Direction.NORTH, Maze.Direction.SOUTH, Maze.Direction.WEST, Maze.Direction.EAST};
+    private static final int NORTH = 0;
+    private static final int SOUTH = 1;
+    private static final int WEST = 2;
+    private static final int EAST = 3;
+
+    /**
+     * The arrival mask of the entrance, which may be left in every direction
+     */
+    private static final int FROM_START = 1 << 4;
+
+    /**
+     * Preserving the length of the shortest known route from the entrance to every jump point, Integer.MAX_VALUE if unknown
+     */
+    private final int[] g_score;
+
+    /**
+     * Preserving the parent jump point of every jump point, -1 for other cells and the entrance being its own parent
+     */
+    private final int[] parent;
+
+    /**
+     * Preserving, for every jump point, the directions it has been reached from with its shortest length,
+     * and the directions it has already been expanded for
+     */
+    private final byte[] arrived;
+    private final byte[] expanded;
+
+    /**
+     * Preserving the jump points discovered but not yet expanded
+     */
+    private final IndexedMinHeap open;
+
+    /**
+     * Basic constructor
+     * @param m     The maze to be solved, which must not contain mud or water
+     */
+    JumpPointEngine(Maze m) {
+        super(m);
+        if (!m.isUniformCost()) {
+            throw new IllegalArgumentException("Jump Point Search needs a maze without mud or water!");
+        }
+        g_score = new int[m.getCellCount()];
+        Arrays.fill(g_score, Integer.MAX_VALUE);
+        parent = new int[m.getCellCount()];
+        Arrays.fill(parent, -1);
+        arrived = new byte[m.getCellCount()];
+        expanded = new byte[m.getCellCount()];
+        open = new IndexedMinHeap(m.getCellCount());
+
+        g_score[head] = 0;
+        parent[head] = head;
+        reach(head);
+        arrived[head] = FROM_START;
+        open.insertOrDecrease(head, key(0, heuristic(head)));
+    }
+
+    @Override
+    void expand() throws NoRouteFoundException {
+        //this case: every reachable jump point has been expanded
+        if (open.isEmpty()) {
+            throw new NoRouteFoundException("I give up, no route found!");
+        }
+        head = open.poll();
+        expansions++;
+
+        //the route to the exit is a shortest one once the exit is expanded
+        if (head == maze.getExitIndex()) {
+            finished = true;
+            return;
+        }
+
+        //only expand for the arrival directions which have not been handled yet
+        int todo = arrived[head] & ~expanded[head];
+        expanded[head] |= todo;
+
+        int directions = 0;
+        if ((todo & FROM_START) != 0) {
+            directions = 0b1111;
+        }
+        for (int d = WEST; d <= EAST; d++) {
+            if ((todo & (1 << d)) != 0) {
+                //arrived horizontally: keep going, or turn where the cell behind has a blocked side
+                int behind = neighbour(head, opposite(d));
+                directions |= 1 << d;
+                for (int v = NORTH; v <= SOUTH; v++) {
+                    if (isOpen(neighbour(head, v)) && !isOpen(neighbour(behind, v))) {
+                        directions |= 1 << v;
+                    }
+                }
+            }
+        }
+        for (int v = NORTH; v <= SOUTH; v++) {
+            if ((todo & (1 << v)) != 0) {
+                //arrived vertically: keep going, or turn to either side
+                directions |= (1 << v) | (1 << WEST) | (1 << EAST);
+            }
+        }
+
+        for (int d = NORTH; d <= EAST; d++) {
+            if ((directions & (1 << d)) != 0) {
+                int jump_point = (d >= WEST) ? jumpHorizontally(head, d) : jumpVertically(head, d);
+                if (jump_point != -1) {
+                    relax(head, jump_point, d);
+                }
+            }
+        }
+    }
+
+    @Override
+    int[] route() {
+        //connect consecutive jump points, which always lie on the same row or column
+        int[] jump_points = walkBack(parent, head);
+        int[] route = new int[g_score[head] + 1];
+        int width = maze.getWidth();
+        int length = 0;
+        route[length++] = jump_points[0];
+        for (int i = 1; i < jump_points.length; i++) {
+            int from = jump_points[i - 1];
+            int to = jump_points[i];
+            int stride = (from / width == to / width) ? 1 : width;
+            stride = (to > from) ? stride : -stride;
+            for (int cell = from + stride; cell != to + stride; cell += stride) {
+                route[length++] = cell;
+            }
+        }
+        return route;
+    }
+
+    @Override
+    void saveState(StateWriter out) {
+        //the visited cells are the jump points; the length of a jump point is its parent's plus the jump between them
+        out.putInts(parent, visited);
+        out.putBytes(arrived, visited);
+        out.putBytes(expanded, visited);
+        out.putCells(open.toArray());
+    }
+
+    @Override
+    void restoreState(StateReader in, int[] route) {
+        int width = maze.getWidth();
+        in.getInts(parent, visited);
+        for (int cell = visited.next(0); cell != -1; cell = visited.next(cell + 1)) {
+            //consecutive jump points have to share a row or a column for the route to be walked between them
+            int from = parent[cell];
+            if (from != cell && (from < 0 || from >= maze.getCellCount()
+                    || (from / width != cell / width && from % width != cell % width))) {
+                throw new InvalidMazeException("\nRoute Invalid!");
+            }
+        }
+        int entrance = maze.getEntranceIndex();
+        for (int cell : StateReader.order(parent, visited, entrance)) {
+            g_score[cell] = (cell == entrance) ? 0 : g_score[parent[cell]] + distance(parent[cell], cell);
+        }
+        in.getBytes(arrived, visited);
+        in.getBytes(expanded, visited);
+
+        open.clear();
+        for (int cell : in.getCells(visited, maze.getCellCount())) {
+            open.insertOrDecrease(cell, key(g_score[cell], heuristic(cell)));
+        }
+        if (!visited.contains(head)) {
+            throw new InvalidMazeException("\nRoute Invalid!");
+        }
+    }
+
+    /**
+     * A method responsible for recording a jump point reached from another one
+     * @param from      The jump point being expanded
+     * @param to        The jump point reached
+     * @param d         The direction of the jump
+     */
+    private void relax(int from, int to, int d) {
+        int tentative = g_score[from] + distance(from, to);
+        if (tentative < g_score[to]) {
+            if (parent[to] == -1) {
+                reach(to);
+            }
+            g_score[to] = tentative;
+            parent[to] = from;
+            arrived[to] = (byte) (1 << d);
+            open.insertOrDecrease(to, key(tentative, heuristic(to)));
+        } else if (tentative == g_score[to] && (arrived[to] & (1 << d)) == 0) {
+            //an equally short arrival from another direction allows other successors, so the jump point is reopened
+            arrived[to] |= 1 << d;
+            open.insertOrDecrease(to, key(tentative, heuristic(to)));
+        }
+    }
+
+    /**
+     * A method responsible for jumping horizontally until the exit, a forced neighbour or a wall is met
+     * @param from      The cell to jump from
+     * @param d         {@link #WEST} or {@link #EAST}
+     * @return          the jump point reached, or -1 if the jump runs into a wall
+     */
+    private int jumpHorizontally(int from, int d) {
+        int previous = from;
+        int cell = neighbour(from, d);
+        while (isOpen(cell)) {
+            if (cell == maze.getExitIndex()) {
+                return cell;
+            }
+            for (int v = NORTH; v <= SOUTH; v++) {
+                if (isOpen(neighbour(cell, v)) && !isOpen(neighbour(previous, v))) {
+                    return cell;
+                }
+            }
+            previous = cell;
+            cell = neighbour(cell, d);
+        }
+        return -1;
+    }
+
+    /**
+     * A method responsible for jumping vertically until the exit, a wall, or a cell from which a horizontal jump
+     * finds a jump point is met
+     * @param from      The cell to jump from
+     * @param v         {@link #NORTH} or {@link #SOUTH}
+     * @return          the jump point reached, or -1 if the jump runs into a wall
+     */
+    private int jumpVertically(int from, int v) {
+        int cell = neighbour(from, v);
+        while (isOpen(cell)) {
+            if (cell == maze.getExitIndex() || jumpHorizontally(cell, WEST) != -1 || jumpHorizontally(cell, EAST) != -1) {
+                return cell;
+            }
+            cell = neighbour(cell, v);
+        }
+        return -1;
+    }
+
+    /**
+     * A method responsible for returning the neighbour of a cell
+     * @param index     The index of the cell, may be -1
+     * @param d         The direction code
+     * @return          the index of the neighbour, or -1 if it is out of the maze
+     */
+    private int neighbour(int index, int d) {
+        return (index == -1) ? -1 : maze.getAdjacentIndex(index, DIRECTIONS[d]);
+    }
+
+    /**
+     * A method responsible for verifying whether a cell exists and can be walked through
+     * @param index     The index of the cell, may be -1
+     * @return          true if the cell is navigable
+     */
+    private boolean isOpen(int index) {
+        return index != -1 && maze.isNavigable(index);
+    }
+
+    /**
+     * A method responsible for returning the opposite of a direction
+     * @param d     The direction code
+     * @return      the code of the opposite direction
+     */
+    private static int opposite(int d) {
+        return d ^ 1;
+    }
+
+    /**
+     * A method responsible for computing the manhattan distance between two cells
+     * @param a     The index of the first cell
+     * @param b     The index of the second cell
+     * @return      the manhattan distance between the cells
+     */
+    private int distance(int a, int b) {
+        int width = maze.getWidth();
+        return Math.abs(a % width - b % width) + Math.abs(a / width - b / width);
+    }
+
+    /**
+     * A method responsible for computing the manhattan distance from a cell to the exit
+     * @param index     The index of the cell
+     * @return          the heuristic cost of the cell
+     */
+    private int heuristic(int index) {
+        return distance(index, maze.getExitIndex());
+    }
+
+    /**
+     * A method responsible for packing the priority of a cell into a heap key, ordered by f then by h
+     * @param g     The length from the entrance
+     * @param h     The heuristic length to the exit
+     * @return      the heap key
+     */
+    private static long key(int g, int h) {
+        return ((long) (g + h) << 32) | h;
+    }
+}
@@ -2,10 +2,13 @@ package maze.routing;
 
 import maze.Tile;
 import maze.Maze;
+import maze.InvalidMazeException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Stack;
+import java.util.function.Predicate;
 import java.io.*;
+import java.nio.channels.FileChannel;
 
 
 /**
@@ -14,14 +17,30 @@ import java.io.*;
 public class RouteFinder implements Serializable {
 
     /**
-     * Preserve the maze to be solved
+     * The maze-solving modes
      */
-    private Maze maze;
+    public static final int A_STAR = 0;
+    public static final int DIJKSTRA = 1;
+    public static final int DFS = 2;
+    public static final int BFS = 3;
+    public static final int JPS = 4;
+    public static final int BIDIRECTIONAL = 5;
+    public static final int CORRIDOR = 6;
+
+    /**
+     * The changed cells reported while changes are not tracked
+     */
+    private static final int[] NO_CELLS = new int[0];
 
     /**
-     * Preserving the solution route
+     * The order in which the neighbours of a tile are enumerated
      */
-    private Stack<Tile> route = new Stack<>();
+    private static final Maze.Direction[] DIRECTIONS = {Maze.Direction.NORTH, Maze.Direction.SOUTH, Maze.Direction.WEST, Maze.Direction.EAST};
+
+    /**
+     * Preserve the maze to be solved
+     */
+    private Maze maze;
 
     /**
      * Preserving the indicator of the finish state
@@ -34,28 +53,90 @@ public class RouteFinder implements Serializable {
     private int mode;
 
     /**
-     * Preserving the list which stores tile access history
+     * Preserving the order in which the engine enumerates the neighbours of a tile
+     */
+    private Maze.Direction[] order;
+
+    /**
+     * Preserving the number of steps taken
+     */
+    private int steps;
+
+    /**
+     * Preserving the search engine of the chosen mode, null until a loaded route finder takes its first step
+     */
+    private SearchEngine engine;
+
+    /**
+     * Preserving the snapshot a loaded route finder was read from, null once its engine has been restored.
+     * Until then the route, the visited cells and the expansion count are served from the snapshot
+     */
+    private RouteSnapshot stored;
+
+    /**
+     * Preserving the route as it was last compared with the engine, and its cells as a bitset, one bit per cell
+     */
+    private int[] known_route = new int[0];
+    private CellSet on_route;
+
+    /**
+     * Preserving whether the engine has moved since the route was last compared
      */
-    private ArrayList<Tile> close_list = new ArrayList<>();
+    private boolean route_stale = true;
 
     /**
-     * Preserving the head of the route
+     * Preserving the cells changed since they were last collected, null while changes are not tracked
      */
-    private Tile head;
+    private IntStack changes;
 
     /**
      * A method responsible for instantiating the RouteFinder
      * @param m     The maze to be initialized as the RouteFinder's field
+     * @param md    The maze-solving mode
+     * @throws NoRouteFoundException when the exit cannot be reached from the entrance, see {@link Maze#isSolvable()}
      */
     public RouteFinder(Maze m, int md){
+        this(m, md, DIRECTIONS);
+    }
+
+    /**
+     * A method responsible for instantiating the RouteFinder with a custom neighbour ordering
+     * @param m     The maze to be initialized as the RouteFinder's field
+     * @param md    The maze-solving mode
+     * @param o     The order in which the engines enumerate the neighbours of a tile
+     * @throws NoRouteFoundException when the exit cannot be reached from the entrance, see {@link Maze#isSolvable()}
+     */
+    public RouteFinder(Maze m, int md, Maze.Direction[] o){
+        //reject unsolvable mazes before any search, the components of the maze are labelled only once
+        if (!m.isSolvable()) {
+            throw new NoRouteFoundException("The exit cannot be reached from the entrance!");
+        }
         maze = m;   //set the maze to be solved as the incoming maze
         finished = false;   //initialize the solving state
         mode = md;
+        order = o.clone();
+
+        //initialize the engine, every engine starts from the entrance of the maze
+        engine = createEngine();
+    }
 
-        //initialize the entrance
-        head = maze.getEntrance();  //set route head to be the entrance of the maze
-        route.push(head);           //push the head of the route to the stack
-        close_list.add(head);       //put it into the history list
+    /**
+     * A method responsible for instantiating the RouteFinder from a snapshot. No engine is created here: the route
+     * finder shows the stored route and visited cells as they are, and the engine is only brought to the stored
+     * search state when the next step is taken, see {@link #restoreEngine()}
+     * @param snapshot  The snapshot read from a file
+     * @throws InvalidMazeException when the mode or the number of steps is invalid
+     */
+    private RouteFinder(RouteSnapshot snapshot){
+        if (snapshot.mode < A_STAR || snapshot.mode > CORRIDOR || snapshot.steps < 0) {
+            throw new InvalidMazeException("\nRoute Invalid!");
+        }
+        maze = snapshot.maze;
+        mode = snapshot.mode;
+        order = snapshot.order;
+        steps = snapshot.steps;
+        finished = snapshot.finished;
+        stored = snapshot;
     }
 
     /**
@@ -71,9 +152,21 @@ public class RouteFinder implements Serializable {
      * @return      the current route (solution)
      */
     public List<Tile> getRoute() {
+        List<Tile> route = new ArrayList<>();
+        for (int index : currentRoute()) {
+            route.add(maze.getTile(index));
+        }
         return route;
     }
 
+    /**
+     * A method responsible for getting the number of tiles on the solution route, without creating any tile
+     * @return      the length of the current route, entrance included
+     */
+    public int getRouteLength() {
+        return currentRoute().length;
+    }
+
     /**
      * A method responsible for returning the solving state
      * @return      the boolean value indicates whether the solution is given or not
@@ -83,174 +176,363 @@ public class RouteFinder implements Serializable {
     }
 
     /**
-     * A method responsible for instantiating and initialize the RouteFinder from a serialized file
+     * A method responsible for returning the chosen maze-solving mode
+     * @return      the mode of the route finder
+     */
+    public int getMode() {
+        return mode;
+    }
+
+    /**
+     * A method responsible for returning how many steps have been taken so far
+     * @return      the number of steps
+     */
+    public int getSteps() {
+        return steps;
+    }
+
+    /**
+     * A method responsible for returning how many cells the solver has expanded so far
+     * @return      the number of expansions
+     */
+    public int getExpansions() {
+        return (stored != null) ? stored.expansions : engine.getExpansions();
+    }
+
+    /**
+     * A method responsible for instantiating and initialize the RouteFinder from a snapshot file written by {@link #save(String)}.
+     * Only the snapshot is read here; the engine is restored from the search state stored in the file once the next
+     * step is taken, so the search goes on without solving anything again
      * @param s     The directory for loading the file from
      * @throws EOFException when the file is empty
      * @throws FileNotFoundException when the directory lead to nothing
-     * @throws ClassNotFoundException when the serialized file read in is invalid
+     * @throws ClassNotFoundException when the file read in is invalid, corrupted or of an unsupported version
      * @return      the route finder to be instantiated
      */
     public static RouteFinder load(String s) throws EOFException, FileNotFoundException, ClassNotFoundException {
-        RouteFinder route_finder_to_read = null;
+        RouteFinder route_finder_to_read;
 
-        try {
+        try (
             FileInputStream fileIn = new FileInputStream(s);
-            ObjectInputStream in = new ObjectInputStream(fileIn);
-            route_finder_to_read = (RouteFinder) in.readObject();
-            in.close();
-            fileIn.close();
+            FileChannel in = fileIn.getChannel()
+            )
+        {
+            RouteSnapshot snapshot = RouteSnapshot.read(in);
+            route_finder_to_read = new RouteFinder(snapshot);
         } catch (EOFException e) {
             throw new EOFException("error: empty file!");
         } catch (FileNotFoundException e) {
             throw new FileNotFoundException("File not found!");
-        } catch (IOException | ClassNotFoundException e){
+        } catch (IOException | InvalidMazeException e){
             throw new ClassNotFoundException("No route found! File is Invalid!");
         }
         return route_finder_to_read;
     }
 
     /**
-     * A method responsible for saving the current game state to a serialized file
+     * A method responsible for saving the current game state to a snapshot file
      * @param s     The directory for saving the file
      * @throws IOException when unexpected IO error happened
      */
     public void save(String s) throws IOException {
-        //instantiating a new route finder which is to be stored, and assign all important attributes to it
-        RouteFinder route_finder_to_save = new RouteFinder(maze, mode);
-        route_finder_to_save.route = route;
-        route_finder_to_save.finished = finished;
-        route_finder_to_save.close_list = close_list;
-        route_finder_to_save.head = head;
-        route_finder_to_save.maze = maze;
-
-        try {
+        RouteSnapshot snapshot = stored;
+        if (snapshot == null) {
+            StateWriter state = new StateWriter();
+            engine.save(state);
+            snapshot = new RouteSnapshot(maze, mode, order, steps, engine.getExpansions(), finished, engine.route(),
+                    engine.visited.toBytes(maze.getCellCount()), state.toBytes());
+        }
+        try (
             FileOutputStream fileOut = new FileOutputStream(s);
-            ObjectOutputStream out = new ObjectOutputStream(fileOut);
-            out.writeObject(route_finder_to_save);
-            out.close();
-            fileOut.close();
+            FileChannel out = fileOut.getChannel()
+            )
+        {
+            snapshot.write(out);
         } catch(IOException e){
             throw new IOException();
         }
     }
 
+    /**
+     * A method responsible for creating a fresh engine of the chosen mode, starting from the entrance
+     * @throws IllegalArgumentException when the mode is unknown
+     * @return      the engine
+     */
+    private SearchEngine createEngine() {
+        switch (mode)
+        {
+            case A_STAR:
+                return new AStarEngine(maze, order.clone());
+            case DIJKSTRA:
+                return new DialDijkstraEngine(maze, order.clone());
+            case DFS:
+                return new DepthFirstEngine(maze, order.clone());
+            case BFS:
+                return new BreadthFirstEngine(maze, order.clone());
+            case JPS:
+                //jump point search relies on uniform costs, fall back to A* on mazes with mud or water
+                return maze.isUniformCost() ? new JumpPointEngine(maze) : new AStarEngine(maze, order.clone());
+            case BIDIRECTIONAL:
+                return new BidirectionalEngine(maze, order.clone());
+            case CORRIDOR:
+                return new CorridorEngine(maze);
+            default:
+                throw new IllegalArgumentException("Unknown mode: " + mode);
+        }
+    }
+
+    /**
+     * A method responsible for bringing a fresh engine of the chosen mode to the search state of the snapshot the
+     * route finder was loaded from, if it has not been yet. The route the restored engine gives has to be the stored
+     * one, which makes it the final check of the file
+     * @throws InvalidMazeException when the stored state is not one the engine could have reached
+     */
+    private void restoreEngine() {
+        if (stored == null) {
+            return;
+        }
+        SearchEngine restored = createEngine();
+        restored.restore(stored, new StateReader(stored.state));
+        if (!Arrays.equals(restored.route(), stored.route)) {
+            throw new InvalidMazeException("\nThe route does not match the engine of mode " + mode + "!");
+        }
+        restored.reached = changes;
+        engine = restored;
+        stored = null;
+    }
+
     /**
      * A method responsible for executing one step of solution
      * @throws NoRouteFoundException when the algorithm is unable to compute a solution for the maze
+     * @throws InvalidMazeException when the search state of a loaded route finder is invalid
      * @return      the boolean value of whether the solution is computed or not
      */
     public boolean step() throws NoRouteFoundException {
-        try{
-            if (!finished) {
-                handleNextStep(head);
-                finished = head.toString().equals("x");
-            }
-            return head.toString().equals("x");
-        }
-        catch(NoRouteFoundException e) {
-            throw new NoRouteFoundException("Unable to solve the maze!");
-        }
+        advance(1, null);
+        return finished;
+    }
 
+    /**
+     * A method responsible for executing up to n steps of solution in one go, stopping early at the exit
+     * @param n     The largest number of steps to be taken
+     * @throws NoRouteFoundException when the algorithm is unable to compute a solution for the maze
+     * @throws InvalidMazeException when the search state of a loaded route finder is invalid
+     * @return      the steps taken, whether the solution is computed and the cells changed by these steps
+     */
+    public StepResult step(int n) throws NoRouteFoundException {
+        return batch(n, null);
     }
 
     /**
-     * A method responsible for converting the maze board to a single string
-     * @return      the string to be printed to the console
+     * A method responsible for executing steps of solution until a condition holds or the exit is reached.
+     * The condition is tested after every step, so it should be cheap
+     * @param condition     The condition, given the route finder after each step
+     * @throws NoRouteFoundException when the algorithm is unable to compute a solution for the maze
+     * @throws InvalidMazeException when the search state of a loaded route finder is invalid
+     * @return      the steps taken, whether the solution is computed and the cells changed by these steps
      */
-    @Override
-    public String toString(){
+    public StepResult stepUntil(Predicate<? super RouteFinder> condition) throws NoRouteFoundException {
+        return batch(Long.MAX_VALUE, condition);
+    }
 
-        int ylen = maze.getTiles().size();            //column size
-        String str_return = "";
+    /**
+     * A method responsible for executing steps of solution until the exit is reached
+     * @throws NoRouteFoundException when the algorithm is unable to compute a solution for the maze
+     * @throws InvalidMazeException when the search state of a loaded route finder is invalid
+     * @return      the steps taken, whether the solution is computed and the cells changed by these steps
+     */
+    public StepResult solve() throws NoRouteFoundException {
+        return batch(Long.MAX_VALUE, null);
+    }
 
-        for(List<Tile> row : maze.getTiles()) {
-            str_return += ((--ylen % 10)) + "  ";
-            for(Tile tile : row) {
-                String char_processed = close_list.contains(tile)? (route.contains(tile)?"*":"-"):tile.toString();
-                str_return += " " + char_processed;
-            }
-            str_return += '\n';
+    /**
+     * A method responsible for executing a batch of steps and reporting on it
+     * @param limit         The largest number of steps to be taken
+     * @param condition     The condition stopping the batch once it holds, null for none
+     * @throws NoRouteFoundException when the algorithm is unable to compute a solution for the maze
+     * @throws InvalidMazeException when the search state of a loaded route finder is invalid
+     * @return      the result of the batch
+     */
+    private StepResult batch(long limit, Predicate<? super RouteFinder> condition) {
+        int from = (changes == null) ? 0 : changes.size();
+        long taken = advance(limit, condition);
+        int[] changed = NO_CELLS;
+        if (changes != null) {
+            //the cells stay collected for pollChangedCells, the result only gets a copy of its own ones
+            syncRoute();
+            changed = changes.toArray(from);
         }
+        return new StepResult(taken, finished, changed);
+    }
 
-        str_return += "\n   ";
-        for(int x=0; x<maze.getTiles().get(0).size(); x++) {
-            str_return += " " + (x % 10);
+    /**
+     * A method responsible for the loop shared by every way of stepping: nothing but the expansions
+     * and the condition happen per step, the rest is paid once per call
+     * @param limit         The largest number of steps to be taken
+     * @param condition     The condition stopping the loop once it holds, null for none
+     * @throws NoRouteFoundException when the algorithm is unable to compute a solution for the maze
+     * @throws InvalidMazeException when the search state of a loaded route finder is invalid
+     * @return      the number of steps taken
+     */
+    private long advance(long limit, Predicate<? super RouteFinder> condition) {
+        long taken = 0;
+        if (finished || limit <= 0) {
+            return taken;
         }
-        return str_return;
-
-
+        restoreEngine();
+        try {
+            while (taken < limit && !finished) {
+                engine.expand();
+                finished = engine.isFinished();
+                steps++;
+                taken++;
+                if (condition != null && condition.test(this)) {
+                    break;
+                }
+            }
+        } catch (NoRouteFoundException e) {
+            throw new NoRouteFoundException("Unable to solve the maze!");
+        } finally {
+            if (taken > 0) {
+                route_stale = true;
+            }
+        }
+        return taken;
     }
 
-
-    //A* helpers
-
     /**
-     * A method responsible for computing the total cost
-     * @param t     The tile to be calculated total cost for
-     * @return      the total cost of the specific tile
+     * A method responsible for turning on or off the tracking of the cells changed by the steps.
+     * Turning it on starts from a clean state, so the view has to be drawn in full once before
+     * @param on    Whether the changes are to be tracked
      */
-    private int totalCost(Tile t){
-        //calculate base cost
-        int base_cost = (Math.abs(maze.getTileLocation(t).getX() - maze.getTileLocation(head).getX())) + Math.abs((maze.getTileLocation(head).getY() - maze.getTileLocation(t).getY()));
-
-        //calculate heuristic cost
-        int heuristic_cost = (Math.abs(maze.getTileLocation(t).getX() - maze.getTileLocation(maze.getExit()).getX())) + Math.abs((maze.getTileLocation(maze.getExit()).getY() - maze.getTileLocation(t).getY()));
-
-        return (mode == 0)? base_cost + heuristic_cost : base_cost;
+    public void setChangeTracking(boolean on) {
+        changes = on ? new IntStack(64) : null;
+        if (engine != null) {
+            engine.reached = changes;
+        }
+        if (on) {
+            syncRoute();
+            changes.clear();
+        }
     }
 
     /**
-     * Main handler of the A* algorithm
-     * @param t     The tile to be read in as reference for step updating
+     * A method responsible for collecting the cells whose state has changed since the last collection, i.e. the cells
+     * reached by the search and the cells which joined or left the route. A cell may be reported more than once
+     * @throws IllegalStateException when the changes are not tracked, see {@link #setChangeTracking(boolean)}
+     * @return      the indices of the changed cells
      */
-    private void handleNextStep(Tile t){
+    public int[] pollChangedCells() {
+        if (changes == null) {
+            throw new IllegalStateException("Change tracking is off!");
+        }
+        syncRoute();
+        int[] changed = changes.toArray();
+        changes.clear();
+        return changed;
+    }
 
-        if (mode == 0 || mode == 1) {
-            //generate a new list storing all four directions for further enumerations
-            List<Maze.Direction> direction = new ArrayList<>(){{add(Maze.Direction.NORTH); add(Maze.Direction.SOUTH); add(Maze.Direction.WEST); add(Maze.Direction.EAST);}};
+    /**
+     * A method responsible for verifying whether a cell has been reached by the solver
+     * @param index     The index of the cell
+     * @return          true if the cell has been visited
+     */
+    public boolean isVisited(int index) {
+        return (stored != null) ? stored.isVisited(index) : engine.isVisited(index);
+    }
 
-            //initialize the minimum cost
-            int min = Integer.MAX_VALUE;
+    /**
+     * A method responsible for verifying whether a cell lies on the current route
+     * @param index     The index of the cell
+     * @return          true if the cell is on the route
+     */
+    public boolean isOnRoute(int index) {
+        syncRoute();
+        return on_route.contains(index);
+    }
 
-            //initialize the next step
-            Tile next_step = t;
+    /**
+     * A method responsible for returning the current route, the stored one until the engine has been restored
+     * @return      the indices of the cells on the route, from the entrance
+     */
+    private int[] currentRoute() {
+        return (stored != null) ? stored.route : engine.route();
+    }
 
-            //enumerate possible choices, and pick the one which has the smallest cost
-            for (Maze.Direction dir : direction){
-                if ( !(maze.getAdjacentTile(t, dir) == null) && (!maze.getAdjacentTile(t, dir).toString().equals("#")) && (!close_list.contains(maze.getAdjacentTile(t, dir))) && (totalCost(t) <= min) ){
-                    min = totalCost(t);
-                    next_step = maze.getAdjacentTile(t, dir);
-                }
+    /**
+     * A method responsible for bringing the route bitset up to date after the engine has moved.
+     * Consecutive routes mostly share a prefix, so only the cells after it are updated and reported as changed
+     */
+    private void syncRoute() {
+        if (!route_stale) {
+            return;
+        }
+        if (on_route == null) {
+            on_route = new CellSet(maze.getCellCount());
+        }
+        int[] route = currentRoute();
+        int shared = 0;
+        while (shared < route.length && shared < known_route.length && route[shared] == known_route[shared]) {
+            shared++;
+        }
+        //the cells leaving the route are cleared first, as some of them may join it again further on
+        for (int i = shared; i < known_route.length; i++) {
+            int cell = known_route[i];
+            on_route.remove(cell);
+            if (changes != null) {
+                changes.push(cell);
+            }
+        }
+        for (int i = shared; i < route.length; i++) {
+            int cell = route[i];
+            on_route.add(cell);
+            if (changes != null) {
+                changes.push(cell);
             }
-            close_list.add(next_step);  //keep the handler from accessing it again
+        }
+        known_route = route;
+        route_stale = false;
+    }
 
-            //next_step remain unchanged, means we can not provide a solution base on current state
-            if (next_step == t) {
+    /**
+     * A method responsible for converting the maze board to a single string
+     * @return      the string to be printed to the console
+     */
+    @Override
+    public String toString(){
 
-                //this case: we cannot find any solution even if we go back to the entrance
-                if (route.peek() == maze.getEntrance()) {
-                    throw new NoRouteFoundException("I give up, no route found!");
-                }
+        int ylen = maze.getHeight();            //column size
+        StringBuilder str_return = new StringBuilder((maze.getWidth() * 2 + 4) * (maze.getHeight() + 2));
 
-                //go back one step, and try other solutions
-                close_list.add(route.pop());
-                head = route.peek();
-            }
-            else{
-                //go forward one step
-                route.push(next_step);
-                close_list.add(head);
-                head = next_step;
+        for(int row = 0; row < maze.getHeight(); row++) {
+            str_return.append(--ylen % 10).append("  ");
+            for(int col = 0; col < maze.getWidth(); col++) {
+                str_return.append(' ').append(charOf(maze.toIndex(row, col)));
             }
+            str_return.append('\n');
         }
 
-        else if (mode == 2) {
-            // DFS
-        }
-        else {
-            // BFS
+        str_return.append("\n   ");
+        for(int x=0; x<maze.getWidth(); x++) {
+            str_return.append(' ').append(x % 10);
         }
+        return str_return.toString();
+
+
+    }
+
 
+    /**
+     * A method responsible for returning the character of a cell as printed: '*' on the route, '-' visited,
+     * the character of the maze otherwise. Both checks are a single bit, so printing stays linear in the cells
+     * @param index     The index of the cell
+     * @return          the character to be printed
+     */
+    private char charOf(int index){
+        if (!isVisited(index)) {
+            return maze.getCellChar(index);
+        }
+        return isOnRoute(index) ? '*' : '-';
     }
 
     /**
@@ -259,16 +541,67 @@ public class RouteFinder implements Serializable {
      * @return      the string to be processed by the maze application
      */
     public String toDefaultString(){
-        int ylen = maze.getTiles().size();            //column size
-        String str_return = "";
+        StringBuilder str_return = new StringBuilder((maze.getWidth() + 1) * maze.getHeight());
 
-        for(List<Tile> row : maze.getTiles()) {
-            for(Tile tile : row) {
-                String char_processed = close_list.contains(tile)? (route.contains(tile)?"*":"-"):tile.toString();
-                str_return +=  char_processed;
+        for(int row = 0; row < maze.getHeight(); row++) {
+            for(int col = 0; col < maze.getWidth(); col++) {
+                str_return.append(charOf(maze.toIndex(row, col)));
             }
-            str_return += '\n';
+            str_return.append('\n');
+        }
+        return str_return.toString();
+    }
+
+    /**
+     * A nested class holding the outcome of a batch of steps
+     */
+    public static class StepResult {
+
+        /**
+         * Preserving the number of steps taken and whether the exit has been reached
+         */
+        private final long steps;
+        private final boolean finished;
+
+        /**
+         * Preserving the cells changed by the batch
+         */
+        private final int[] changed;
+
+        /**
+         * Basic constructor
+         * @param s     The number of steps taken
+         * @param f     Whether the exit has been reached
+         * @param c     The cells changed by the batch
+         */
+        StepResult(long s, boolean f, int[] c) {
+            steps = s;
+            finished = f;
+            changed = c;
+        }
+
+        /**
+         * A method responsible for returning the number of steps taken by the batch
+         * @return      the number of steps
+         */
+        public long getSteps() {
+            return steps;
+        }
+
+        /**
+         * A method responsible for returning whether the exit has been reached
+         * @return      true if the maze has been solved
+         */
+        public boolean isFinished() {
+            return finished;
+        }
+
+        /**
+         * A method responsible for returning the cells changed by the batch, as {@link #pollChangedCells()} reports them
+         * @return      the indices of the changed cells, none while changes are not tracked
+         */
+        public int[] getChangedCells() {
+            return changed;
         }
-        return str_return;
     }
-}
\ No newline at end of file
+}
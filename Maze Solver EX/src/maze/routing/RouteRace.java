@@ -0,0 +1,259 @@
+package maze.routing;
+
+import maze.Maze;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Class providing a race between maze-solving modes: every mode solves the same maze on its own thread,
+ * the first one to reach a conclusion wins and the others are cancelled.
+ * Note that the winning route is the one found first, which is not necessarily the cheapest one
+ */
+public class RouteRace {
+
+    /**
+     * The modes raced by default
+     */
+    private static final int[] ALL_MODES = {RouteFinder.A_STAR, RouteFinder.DIJKSTRA, RouteFinder.DFS,
+            RouteFinder.BFS, RouteFinder.JPS, RouteFinder.BIDIRECTIONAL, RouteFinder.CORRIDOR};
+
+    /**
+     * A enumeration of the ways a mode can leave the race
+     */
+    public enum Status{
+        SOLVED, NO_ROUTE, CANCELLED
+    }
+
+    /**
+     * Empty constructor
+     */
+    private RouteRace() {}
+
+    /**
+     * A method responsible for racing every mode on a maze
+     * @param maze      The maze to be solved
+     * @throws InterruptedException when the calling thread is interrupted while waiting for the race
+     * @return          the result of the race
+     */
+    public static Result race(Maze maze) throws InterruptedException {
+        return race(maze, ALL_MODES);
+    }
+
+    /**
+     * A method responsible for racing every mode on a maze, on the threads of a given executor
+     * @param maze      The maze to be solved
+     * @param executor  The executor running the modes, see {@link #race(Maze, int[], ExecutorService)}
+     * @throws InterruptedException when the calling thread is interrupted while waiting for the race
+     * @return          the result of the race
+     */
+    public static Result race(Maze maze, ExecutorService executor) throws InterruptedException {
+        return race(maze, ALL_MODES, executor);
+    }
+
+    /**
+     * A method responsible for racing the given modes on a maze. Each mode runs on a thread of its own and checks
+     * between two steps whether another mode has already won, so cancelled modes stop promptly
+     * @param maze      The maze to be solved, shared by every mode
+     * @param modes     The modes taking part in the race
+     * @throws InterruptedException when the calling thread is interrupted while waiting for the race
+     * @return          the result of the race
+     */
+    public static Result race(Maze maze, int[] modes) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(modes.length, r -> {
+            Thread thread = new Thread(r, "route-race");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            return race(maze, modes, pool);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * A method responsible for racing the given modes on a maze, on the threads of a given executor, which bounds
+     * the threads of many races run at once. With fewer threads than modes the modes start one after the other,
+     * and a mode starting after another has won leaves the race at once, cancelled.
+     * The executor must not be the one running the calling thread, which only waits for the modes
+     * @param maze      The maze to be solved, shared by every mode
+     * @param modes     The modes taking part in the race
+     * @param executor  The executor running the modes, left running afterwards
+     * @throws InterruptedException when the calling thread is interrupted while waiting for the race
+     * @return          the result of the race
+     */
+    public static Result race(Maze maze, int[] modes, ExecutorService executor) throws InterruptedException {
+        //an unsolvable maze is settled before the race starts, no mode could do better
+        if (!maze.isSolvable()) {
+            List<Entry> entries = new ArrayList<>();
+            for (int mode : modes) {
+                entries.add(new Entry(mode, Status.NO_ROUTE, 0, 0));
+            }
+            return new Result(null, entries);
+        }
+
+        AtomicInteger winner = new AtomicInteger(-1);     //position of the winning mode in the array
+        RouteFinder[] finders = new RouteFinder[modes.length];
+
+        List<Callable<Entry>> tasks = new ArrayList<>();
+        for (int i = 0; i < modes.length; i++) {
+            int position = i;
+            tasks.add(() -> {
+                long start = System.nanoTime();
+                RouteFinder finder = new RouteFinder(maze, modes[position]);
+                finders[position] = finder;
+                Status status = Status.CANCELLED;
+                try {
+                    if (winner.get() == -1 && finder.stepUntil(f ->
+                            winner.get() != -1 || Thread.currentThread().isInterrupted()).isFinished()) {
+                        status = Status.SOLVED;
+                    }
+                } catch (NoRouteFoundException e) {
+                    status = Status.NO_ROUTE;
+                }
+                //both a route and the proof that there is none settle the race
+                if (status != Status.CANCELLED) {
+                    winner.compareAndSet(-1, position);
+                }
+                return new Entry(modes[position], status, System.nanoTime() - start, finder.getExpansions());
+            });
+        }
+
+        try {
+            List<Entry> entries = new ArrayList<>();
+            for (Future<Entry> future : executor.invokeAll(tasks)) {
+                entries.add(future.get());
+            }
+            int position = winner.get();
+            return new Result(position == -1 ? null : finders[position], entries);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A route finder failed during the race!", e.getCause());
+        }
+    }
+
+    /**
+     * A nested class holding the outcome of a race
+     */
+    public static class Result {
+
+        /**
+         * Preserving the route finder of the winning mode
+         */
+        private final RouteFinder winner;
+
+        /**
+         * Preserving the outcome of every mode, in the order the modes were given
+         */
+        private final List<Entry> entries;
+
+        /**
+         * Basic constructor
+         * @param w     The route finder of the winning mode, null if the race was interrupted or the maze is unsolvable
+         * @param e     The outcome of every mode
+         */
+        Result(RouteFinder w, List<Entry> e) {
+            winner = w;
+            entries = Collections.unmodifiableList(e);
+        }
+
+        /**
+         * A method responsible for returning the route finder of the winning mode
+         * @return      the winning route finder, null if no mode reached a conclusion or the maze is unsolvable
+         */
+        public RouteFinder getWinner() {
+            return winner;
+        }
+
+        /**
+         * A method responsible for returning whether the winning mode found a route
+         * @return      true if the maze has been solved
+         */
+        public boolean isSolved() {
+            return winner != null && winner.isFinished();
+        }
+
+        /**
+         * A method responsible for returning the outcome of every mode
+         * @return      the entries, in the order the modes were given
+         */
+        public List<Entry> getEntries() {
+            return entries;
+        }
+    }
+
+    /**
+     * A nested class holding the outcome of one mode in a race
+     */
+    public static class Entry {
+
+        /**
+         * Preserving the mode, how it left the race, its wall time in nanoseconds and its number of expansions
+         */
+        private final int mode;
+        private final Status status;
+        private final long nanos;
+        private final int expansions;
+
+        /**
+         * Basic constructor
+         * @param m     The mode
+         * @param s     How the mode left the race
+         * @param n     The wall time of the mode in nanoseconds
+         * @param e     The number of expansions of the mode
+         */
+        Entry(int m, Status s, long n, int e) {
+            mode = m;
+            status = s;
+            nanos = n;
+            expansions = e;
+        }
+
+        /**
+         * A method responsible for returning the mode
+         * @return      the mode
+         */
+        public int getMode() {
+            return mode;
+        }
+
+        /**
+         * A method responsible for returning how the mode left the race
+         * @return      the status of the mode
+         */
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * A method responsible for returning the wall time of the mode
+         * @return      the wall time in nanoseconds
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * A method responsible for returning the number of expansions of the mode
+         * @return      the number of expansions
+         */
+        public int getExpansions() {
+            return expansions;
+        }
+
+        /**
+         * A method responsible for converting the entry to a string
+         * @return      the string of the entry
+         */
+        public String toString() {
+            return "mode " + mode + ": " + status + " after " + expansions + " expansions in " + (nanos / 1000000) + " ms";
+        }
+    }
+}
@@ -0,0 +1,440 @@
+package maze.routing;
+
+import maze.InvalidMazeException;
+import maze.Maze;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+
+/**
+ * Class providing the snapshot format of a {@link RouteFinder}, written in place of Java serialization.
+ * A snapshot holds, big-endian: the magic "MZRT", the version and the flags (2 bytes each), the mode, the neighbour
+ * order (its length, then one byte per direction), the numbers of steps taken and of expansions performed, the maze
+ * as a complete '.mazeb' image, the route as its length and first cell followed by one 2-bit direction per move,
+ * the visited cells as a deflated bitmap, the rest of the search state of the engine as a deflated block, see
+ * {@link StateWriter}, and a CRC-32C of everything before it.
+ * A loaded route finder shows the stored route and visited cells as they are, and its engine goes on with the search
+ * from the stored state once the next step is taken, nothing is solved again
+ */
+class RouteSnapshot implements Serializable {
+
+    /**
+     * The magic number every snapshot starts with, "MZRT"
+     */
+    private static final int MAGIC = 0x4D5A5254;
+
+    /**
+     * The version written by this class, snapshots of other versions are rejected
+     */
+    private static final short VERSION = 2;
+
+    /**
+     * The flag set when the route has reached the exit
+     */
+    private static final short FLAG_FINISHED = 1;
+
+    /**
+     * The flag set when the dead ends of the maze were filled, the maze itself being written as it was loaded
+     */
+    private static final short FLAG_FILLED = 2;
+
+    /**
+     * The largest size of the search state per cell of the maze, so that a crafted size cannot exhaust the memory
+     */
+    private static final int MAX_STATE_PER_CELL = 32;
+
+    /**
+     * The size of the buffer the snapshot is written through
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The directions, indexed by their 2-bit code on the route
+     */
+    static final Maze.Direction[] MOVES = {Maze.Direction.NORTH, Maze.Direction.SOUTH, Maze.Direction.WEST, Maze.Direction.EAST};
+
+    /**
+     * Preserving the content of the snapshot
+     */
+    final Maze maze;
+    final int mode;
+    final Maze.Direction[] order;
+    final int steps;
+    final int expansions;
+    final boolean finished;
+    final int[] route;
+    final byte[] visited;
+    final byte[] state;
+
+    /**
+     * Basic constructor
+     * @param m     The maze
+     * @param md    The maze-solving mode
+     * @param o     The neighbour order
+     * @param s     The number of steps taken
+     * @param e     The number of expansions performed
+     * @param f     Whether the route has reached the exit
+     * @param r     The route, as cell indices
+     * @param v     The visited cells, one bit per cell, least significant bit first
+     * @param st    The rest of the search state, see {@link SearchEngine#save(StateWriter)}
+     */
+    RouteSnapshot(Maze m, int md, Maze.Direction[] o, int s, int e, boolean f, int[] r, byte[] v, byte[] st) {
+        maze = m;
+        mode = md;
+        order = o;
+        steps = s;
+        expansions = e;
+        finished = f;
+        route = r;
+        visited = v;
+        state = st;
+    }
+
+    /**
+     * A method responsible for verifying whether a cell is visited in the stored bitmap
+     * @param index     The index of the cell
+     * @return          true if the cell has been visited
+     */
+    boolean isVisited(int index) {
+        return (visited[index >>> 3] >>> (index & 7) & 1) != 0;
+    }
+
+    /**
+     * A method responsible for writing the snapshot
+     * @param channel   The channel of the file
+     * @throws IOException when the file cannot be written
+     */
+    void write(FileChannel channel) throws IOException {
+        SnapshotWriter out = new SnapshotWriter(channel);
+        out.putInt(MAGIC);
+        out.putShort(VERSION);
+        out.putShort((short) ((finished ? FLAG_FINISHED : 0) | (maze.hasFilledDeadEnds() ? FLAG_FILLED : 0)));
+        out.putInt(mode);
+        out.put((byte) order.length);
+        for (Maze.Direction direction : order) {
+            out.put((byte) direction.ordinal());
+        }
+        out.putInt(steps);
+        out.putInt(expansions);
+
+        out.putInt(maze.getBinarySize());
+        maze.toBinary(out);
+
+        //the route: its first cell, then 2 bits per move
+        out.putInt(route.length);
+        out.putInt(route.length == 0 ? -1 : route[0]);
+        byte[] moves = new byte[(Math.max(route.length - 1, 0) + 3) >>> 2];
+        for (int i = 1; i < route.length; i++) {
+            moves[(i - 1) >>> 2] |= (byte) (moveCode(route[i - 1], route[i]) << (((i - 1) & 3) << 1));
+        }
+        out.put(moves);
+
+        //the visited cells, deflated since the visited area is mostly made of long runs
+        byte[] compressed = deflate(visited);
+        out.putInt(compressed.length);
+        out.put(compressed);
+
+        //the search state, its size first since it depends on the engine
+        compressed = deflate(state);
+        out.putInt(state.length);
+        out.putInt(compressed.length);
+        out.put(compressed);
+
+        out.putChecksum();
+    }
+
+    /**
+     * A method responsible for reading a snapshot
+     * @param channel   The channel of the file
+     * @throws EOFException when the file is empty
+     * @throws IOException when the file cannot be read
+     * @throws InvalidMazeException when the file is not a valid snapshot of a supported version
+     * @return          the snapshot
+     */
+    static RouteSnapshot read(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            throw new EOFException("\nEmpty file!");
+        }
+        if (size > Integer.MAX_VALUE || size < 4) {
+            throw new InvalidMazeException("\nRoute Invalid!");
+        }
+        ByteBuffer in = ByteBuffer.allocate((int) size);
+        while (in.hasRemaining() && channel.read(in) != -1) {
+            //keep reading until the whole file is in memory
+        }
+        in.flip();
+
+        CRC32C crc = new CRC32C();
+        crc.update(in.duplicate().limit(in.limit() - 4));
+        if ((int) crc.getValue() != in.getInt(in.limit() - 4)) {
+            throw new InvalidMazeException("\nRoute file corrupted!");
+        }
+
+        try {
+            if (in.getInt() != MAGIC) {
+                throw new InvalidMazeException("\nRoute Invalid!");
+            }
+            if (in.getShort() != VERSION) {
+                throw new InvalidMazeException("\nUnsupported route version!");
+            }
+            short flags = in.getShort();
+            boolean finished = (flags & FLAG_FINISHED) != 0;
+            int mode = in.getInt();
+            Maze.Direction[] order = new Maze.Direction[in.get()];
+            boolean[] seen = new boolean[Maze.Direction.values().length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = Maze.Direction.values()[in.get()];
+                seen[order[i].ordinal()] = true;
+            }
+            //the order has to hold every direction exactly once
+            if (order.length != seen.length || !isEverySet(seen)) {
+                throw new InvalidMazeException("\nRoute Invalid!");
+            }
+            int steps = in.getInt();
+            int expansions = in.getInt();
+
+            int maze_size = in.getInt();
+            Maze maze = Maze.fromBinary(in.slice().limit(maze_size));
+            in.position(in.position() + maze_size);
+            if ((flags & FLAG_FILLED) != 0) {
+                //filling is deterministic, so the engine replays on the same cells as before
+                maze = maze.fillDeadEnds();
+            }
+
+            int route_length = in.getInt();
+            int first = in.getInt();
+            int[] route = new int[route_length];
+            if (route_length > 0) {
+                if (first < 0 || first >= maze.getCellCount() || !maze.isNavigable(first)) {
+                    throw new InvalidMazeException("\nRoute Invalid!");
+                }
+                route[0] = first;
+            }
+            byte[] moves = new byte[(Math.max(route_length - 1, 0) + 3) >>> 2];
+            in.get(moves);
+            for (int i = 1; i < route_length; i++) {
+                int code = (moves[(i - 1) >>> 2] >>> (((i - 1) & 3) << 1)) & 3;
+                route[i] = maze.getAdjacentIndex(route[i - 1], MOVES[code]);
+                //a move must neither leave the maze nor walk into a wall
+                if (route[i] == -1 || !maze.isNavigable(route[i])) {
+                    throw new InvalidMazeException("\nRoute Invalid!");
+                }
+            }
+
+            byte[] visited = inflate(in, (maze.getCellCount() + 7) >>> 3);
+            int state_size = in.getInt();
+            if (state_size < 0 || state_size > (long) maze.getCellCount() * MAX_STATE_PER_CELL + BUFFER_SIZE) {
+                throw new InvalidMazeException("\nRoute Invalid!");
+            }
+            byte[] state = inflate(in, state_size);
+
+            return new RouteSnapshot(maze, mode, order, steps, expansions, finished, route, visited, state);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException | NegativeArraySizeException
+                | DataFormatException e) {
+            throw new InvalidMazeException("\nRoute Invalid!");
+        }
+    }
+
+    /**
+     * A method responsible for deflating a block of bytes
+     * @param bytes     The bytes
+     * @return          the deflated bytes
+     */
+    private static byte[] deflate(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        deflater.setInput(bytes);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        byte[] chunk = new byte[BUFFER_SIZE];
+        while (!deflater.finished()) {
+            compressed.write(chunk, 0, deflater.deflate(chunk));
+        }
+        deflater.end();
+        return compressed.toByteArray();
+    }
+
+    /**
+     * A method responsible for reading a deflated block, its compressed size first, and inflating it
+     * @param in        The buffer to read from
+     * @param size      The size of the block once inflated
+     * @throws InvalidMazeException when the block does not inflate to exactly the given size
+     * @throws DataFormatException when the block is not deflated data
+     * @return          the inflated bytes
+     */
+    private static byte[] inflate(ByteBuffer in, int size) throws DataFormatException {
+        byte[] compressed = new byte[in.getInt()];
+        in.get(compressed);
+        byte[] bytes = new byte[size];
+        Inflater inflater = new Inflater();
+        inflater.setInput(compressed);
+        int inflated = inflater.inflate(bytes);
+        boolean complete = inflater.finished();
+        inflater.end();
+        if (inflated != size || !complete) {
+            throw new InvalidMazeException("\nRoute Invalid!");
+        }
+        return bytes;
+    }
+
+    /**
+     * A method responsible for verifying whether every flag of an array is set
+     * @param flags     The flags
+     * @return          true if none of them is false
+     */
+    private static boolean isEverySet(boolean[] flags) {
+        for (boolean flag : flags) {
+            if (!flag) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A method responsible for returning the 2-bit code of a move between two adjacent cells
+     * @param from      The cell moved from
+     * @param to        The cell moved to
+     * @return          The index of the direction in {@link #MOVES}
+     */
+    private int moveCode(int from, int to) {
+        for (int code = 0; code < MOVES.length; code++) {
+            if (maze.getAdjacentIndex(from, MOVES[code]) == to) {
+                return code;
+            }
+        }
+        throw new IllegalStateException("The route is not contiguous!");
+    }
+
+    /**
+     * A nested class responsible for writing the snapshot through a buffer, keeping the checksum of everything written
+     */
+    private static class SnapshotWriter implements WritableByteChannel {
+
+        /**
+         * Preserving the channel of the file, the buffer and the running checksum
+         */
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private final CRC32C crc = new CRC32C();
+
+        /**
+         * Basic constructor
+         * @param c     The channel of the file
+         */
+        SnapshotWriter(FileChannel c) {
+            channel = c;
+        }
+
+        /**
+         * A method responsible for making room in the buffer
+         * @param bytes     The number of bytes needed, at most the size of the buffer
+         * @throws IOException when the file cannot be written
+         */
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        /**
+         * A method responsible for writing the buffer to the file
+         * @throws IOException when the file cannot be written
+         */
+        private void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * A method responsible for writing a byte
+         * @param value     The byte
+         * @throws IOException when the file cannot be written
+         */
+        void put(byte value) throws IOException {
+            ensure(1);
+            buffer.put(value);
+        }
+
+        /**
+         * A method responsible for writing a short, big-endian
+         * @param value     The short
+         * @throws IOException when the file cannot be written
+         */
+        void putShort(short value) throws IOException {
+            ensure(2);
+            buffer.putShort(value);
+        }
+
+        /**
+         * A method responsible for writing an int, big-endian
+         * @param value     The int
+         * @throws IOException when the file cannot be written
+         */
+        void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        /**
+         * A method responsible for writing an array of bytes
+         * @param bytes     The bytes
+         * @throws IOException when the file cannot be written
+         */
+        void put(byte[] bytes) throws IOException {
+            write(ByteBuffer.wrap(bytes));
+        }
+
+        /**
+         * A method responsible for ending the snapshot with the checksum of everything written before
+         * @throws IOException when the file cannot be written
+         */
+        void putChecksum() throws IOException {
+            flush();
+            buffer.putInt((int) crc.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        @Override
+        public int write(ByteBuffer source) throws IOException {
+            int written = source.remaining();
+            while (source.hasRemaining()) {
+                ensure(1);
+                int length = Math.min(buffer.remaining(), source.remaining());
+                ByteBuffer part = source.duplicate();
+                part.limit(part.position() + length);
+                buffer.put(part);
+                source.position(source.position() + length);
+            }
+            return written;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() {
+            //the channel belongs to the caller
+        }
+    }
+}
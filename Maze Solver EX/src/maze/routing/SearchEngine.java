@@ -0,0 +1,173 @@
+package maze.routing;
+
+import maze.InvalidMazeException;
+import maze.Maze;
+import java.io.Serializable;
+
+
+/**
+ * Class providing the common definition of the search engines driven by {@link RouteFinder}.
+ * An engine works on the flat cell indices of the maze and performs one expansion per call of {@link #expand()}
+ */
+abstract class SearchEngine implements Serializable {
+
+    /**
+     * Preserve the maze to be solved
+     */
+    protected final Maze maze;
+
+    /**
+     * Preserving the cell expanded last, the current route always ends at this cell
+     */
+    protected int head;
+
+    /**
+     * Preserving the indicator of the finish state
+     */
+    protected boolean finished;
+
+    /**
+     * Preserving the number of expansions performed so far
+     */
+    protected int expansions;
+
+    /**
+     * Preserving the cells reached by the search so far
+     */
+    protected final CellSet visited;
+
+    /**
+     * Preserving the cells reached since the route finder last collected them, null while nobody collects them
+     */
+    transient IntStack reached;
+
+    /**
+     * Basic constructor
+     * @param m     The maze to be solved
+     */
+    SearchEngine(Maze m) {
+        maze = m;
+        head = m.getEntranceIndex();
+        visited = new CellSet(m.getCellCount());
+    }
+
+    /**
+     * A method responsible for executing one expansion of the search
+     * @throws NoRouteFoundException when every reachable cell has been expanded without reaching the exit
+     */
+    abstract void expand() throws NoRouteFoundException;
+
+    /**
+     * A method responsible for writing what the engine needs to go on with the search, apart from the visited cells,
+     * the expansion count and the finish state, which the snapshot holds anyway
+     * @param out   The writer of the state
+     */
+    final void save(StateWriter out) {
+        out.putInt(head);
+        saveState(out);
+    }
+
+    /**
+     * A method responsible for bringing a freshly created engine of the same mode to the state of a snapshot
+     * @param snapshot  The snapshot
+     * @param in        The reader of the state written by {@link #save(StateWriter)}
+     * @throws InvalidMazeException when the state is not one the engine could have reached
+     */
+    final void restore(RouteSnapshot snapshot, StateReader in) {
+        visited.readBytes(snapshot.visited);
+        for (int cell = visited.next(0); cell != -1; cell = visited.next(cell + 1)) {
+            if (cell >= maze.getCellCount() || !maze.isNavigable(cell)) {
+                throw new InvalidMazeException("\nRoute Invalid!");
+            }
+        }
+        expansions = snapshot.expansions;
+        finished = snapshot.finished;
+        head = in.getCell(maze.getCellCount());
+        restoreState(in, snapshot.route);
+        in.finish();
+    }
+
+    /**
+     * A method responsible for writing the state specific to the engine
+     * @param out   The writer of the state
+     */
+    abstract void saveState(StateWriter out);
+
+    /**
+     * A method responsible for reading the state specific to the engine, once the visited cells, the head,
+     * the expansion count and the finish state have been restored
+     * @param in        The reader of the state
+     * @param route     The route stored in the snapshot, from the entrance to the head
+     * @throws InvalidMazeException when the state is not one the engine could have reached
+     */
+    abstract void restoreState(StateReader in, int[] route);
+
+    /**
+     * A method responsible for verifying whether a cell has been reached by the search
+     * @param index     The index of the cell
+     * @return          true if the cell has been visited
+     */
+    final boolean isVisited(int index) {
+        return visited.contains(index);
+    }
+
+    /**
+     * A method responsible for returning the current route, from the entrance to the head
+     * @return      the indices of the cells on the route
+     */
+    abstract int[] route();
+
+    /**
+     * A method responsible for returning the cell expanded last
+     * @return      the index of the head of the route
+     */
+    int getHead() {
+        return head;
+    }
+
+    /**
+     * A method responsible for returning the solving state
+     * @return      true once the exit has been reached
+     */
+    boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * A method responsible for returning the number of expansions performed so far
+     * @return      the expansion count
+     */
+    int getExpansions() {
+        return expansions;
+    }
+
+    /**
+     * A method responsible for marking a cell as visited, and recording it so that its view can be refreshed.
+     * Every engine calls it exactly when a cell is first reached, starting cells included
+     * @param index     The index of the cell
+     */
+    protected final void reach(int index) {
+        visited.add(index);
+        if (reached != null) {
+            reached.push(index);
+        }
+    }
+
+    /**
+     * A method responsible for rebuilding a route by following a parent array back to the entrance
+     * @param parent    The parent of every visited cell, the entrance being its own parent
+     * @param last      The cell the route ends at
+     * @return          the indices of the cells on the route, from the entrance to the given cell
+     */
+    static int[] walkBack(int[] parent, int last) {
+        int length = 1;
+        for (int i = last; parent[i] != i; i = parent[i]) {
+            length++;
+        }
+        int[] route = new int[length];
+        for (int i = last, j = length - 1; j >= 0; i = parent[i], j--) {
+            route[j] = i;
+        }
+        return route;
+    }
+}
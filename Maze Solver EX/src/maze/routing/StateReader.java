@@ -0,0 +1,285 @@
+package maze.routing;
+
+import maze.InvalidMazeException;
+import maze.Maze;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * Class providing the reading of the search state of an engine from a snapshot, written by {@link StateWriter}.
+ * The file may have been crafted, so every cell read is checked to lie in the maze and every parent to lead back
+ * to the root; anything else is rejected with an {@link InvalidMazeException} before an engine could use it
+ */
+class StateReader {
+
+    /**
+     * Preserving the bytes of the state
+     */
+    private final ByteBuffer in;
+
+    /**
+     * Basic constructor
+     * @param bytes     The bytes of the state
+     */
+    StateReader(byte[] bytes) {
+        in = ByteBuffer.wrap(bytes);
+    }
+
+    /**
+     * A method responsible for verifying that enough bytes are left
+     * @param count     The number of bytes about to be read
+     * @throws InvalidMazeException when fewer bytes are left
+     */
+    private void need(long count) {
+        if (count < 0 || count > in.remaining()) {
+            throw invalid();
+        }
+    }
+
+    /**
+     * A method responsible for reading a byte
+     * @throws InvalidMazeException when the state ends too early
+     * @return      the byte
+     */
+    byte get() {
+        need(1);
+        return in.get();
+    }
+
+    /**
+     * A method responsible for reading an int
+     * @throws InvalidMazeException when the state ends too early
+     * @return      the int
+     */
+    int getInt() {
+        need(4);
+        return in.getInt();
+    }
+
+    /**
+     * A method responsible for reading a boolean
+     * @throws InvalidMazeException when the state ends too early or the byte is neither 0 nor 1
+     * @return      the boolean
+     */
+    boolean getBoolean() {
+        byte value = get();
+        if (value != 0 && value != 1) {
+            throw invalid();
+        }
+        return value == 1;
+    }
+
+    /**
+     * A method responsible for reading the index of a cell
+     * @param cell_count    The number of cells
+     * @throws InvalidMazeException when the state ends too early or the index is out of range
+     * @return              the index
+     */
+    int getCell(int cell_count) {
+        int cell = getInt();
+        if (cell < 0 || cell >= cell_count) {
+            throw invalid();
+        }
+        return cell;
+    }
+
+    /**
+     * A method responsible for reading a list of cells, every one of them having to lie in a set
+     * @param set           The set every cell has to lie in
+     * @param cell_count    The number of cells the set may hold
+     * @throws InvalidMazeException when the state ends too early or a cell is not in the set
+     * @return              the indices of the cells, in order
+     */
+    int[] getCells(CellSet set, int cell_count) {
+        int length = getInt();
+        need(4L * length);
+        int[] cells = new int[length];
+        for (int i = 0; i < length; i++) {
+            cells[i] = getCell(cell_count);
+            if (!set.contains(cells[i])) {
+                throw invalid();
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * A method responsible for reading a set of cells
+     * @param cell_count    The number of cells the set may hold
+     * @throws InvalidMazeException when the state ends too early or the bitmap holds cells out of range
+     * @return              the set
+     */
+    CellSet getSet(int cell_count) {
+        byte[] bitmap = new byte[(cell_count + 7) >>> 3];
+        need(bitmap.length);
+        in.get(bitmap);
+        if ((cell_count & 7) != 0 && (bitmap[bitmap.length - 1] & 0xFF) >>> (cell_count & 7) != 0) {
+            throw invalid();
+        }
+        CellSet set = new CellSet(cell_count);
+        set.readBytes(bitmap);
+        return set;
+    }
+
+    /**
+     * A method responsible for reading one int for every cell of a set, in increasing order of cell index
+     * @param values    The values of every cell, to be filled
+     * @param set       The cells whose values are read
+     * @throws InvalidMazeException when the state ends too early
+     */
+    void getInts(int[] values, CellSet set) {
+        for (int cell = set.next(0); cell != -1; cell = set.next(cell + 1)) {
+            values[cell] = getInt();
+        }
+    }
+
+    /**
+     * A method responsible for reading one byte for every cell of a set, in increasing order of cell index
+     * @param values    The values of every cell, to be filled
+     * @param set       The cells whose values are read
+     * @throws InvalidMazeException when the state ends too early
+     */
+    void getBytes(byte[] values, CellSet set) {
+        for (int cell = set.next(0); cell != -1; cell = set.next(cell + 1)) {
+            values[cell] = get();
+        }
+    }
+
+    /**
+     * A method responsible for reading the parents written by {@link StateWriter#putParents(int[], CellSet, int, int)}.
+     * Every parent has to be a neighbour in the set, and following the parents from any cell has to reach the root
+     * @param m         The maze
+     * @param parent    The parent of every cell, to be filled for the cells of the set, -1 for every other cell
+     * @param set       The cells whose parents are read
+     * @param root      The cell which is its own parent
+     * @throws InvalidMazeException when the state ends too early or the parents do not form a tree of the set
+     * @return          the cells of the set, every parent coming before its children
+     */
+    int[] getParents(Maze m, int[] parent, CellSet set, int root) {
+        if (!set.contains(root)) {
+            throw invalid();
+        }
+        int width = m.getWidth();
+        int cell_count = m.getCellCount();
+        int packed = 0;
+        int count = 0;
+        for (int cell = set.next(0); cell != -1; cell = set.next(cell + 1)) {
+            if (cell == root) {
+                parent[cell] = cell;
+                continue;
+            }
+            if (count == 0) {
+                packed = get();
+            }
+            int next = neighbour(cell, (packed >>> (count << 1)) & 3, width, cell_count);
+            if (next == -1 || !set.contains(next)) {
+                throw invalid();
+            }
+            parent[cell] = next;
+            count = (count + 1) & 3;
+        }
+
+        //walk the tree down from the root depth first, which keeps along the corridors and so close in memory;
+        //the stack grows down from the end of the order, and a cell never reached lies on a cycle
+        int[] order = new int[set.count()];
+        int size = 0;
+        int top = order.length - 1;
+        order[top] = root;
+        while (top < order.length) {
+            int cell = order[top++];
+            order[size++] = cell;
+            for (int code = 0; code < 4; code++) {
+                int child = neighbour(cell, code, width, cell_count);
+                if (child != -1 && child != root && parent[child] == cell) {
+                    order[--top] = child;
+                }
+            }
+        }
+        if (size != order.length) {
+            throw invalid();
+        }
+        return order;
+    }
+
+    /**
+     * A method responsible for ordering the cells of a set so that every parent comes before its children,
+     * verifying on the way that following the parents from any cell of the set reaches the root without leaving
+     * the set or going round in circles
+     * @param parent    The parent of every cell of the set
+     * @param set       The cells to be ordered
+     * @param root      The cell which is its own parent
+     * @throws InvalidMazeException when the parents do not form a tree of the set rooted at the root
+     * @return          the cells of the set, the root first
+     */
+    static int[] order(int[] parent, CellSet set, int root) {
+        if (!set.contains(root) || parent[root] != root) {
+            throw invalid();
+        }
+        int[] order = new int[set.count()];
+        CellSet done = new CellSet(parent.length);
+        CellSet pending = new CellSet(parent.length);
+        IntStack path = new IntStack(64);
+        order[0] = root;
+        done.add(root);
+        int size = 1;
+        for (int cell = set.next(0); cell != -1; cell = set.next(cell + 1)) {
+            //climb until a cell already ordered, then order the cells climbed through from the top down
+            for (int i = cell; !done.contains(i); i = parent[i]) {
+                if (pending.contains(i)) {
+                    throw invalid();
+                }
+                pending.add(i);
+                path.push(i);
+                if (parent[i] < 0 || parent[i] >= parent.length || !set.contains(parent[i])) {
+                    throw invalid();
+                }
+            }
+            while (!path.isEmpty()) {
+                int i = path.pop();
+                done.add(i);
+                order[size++] = i;
+            }
+        }
+        return order;
+    }
+
+    /**
+     * A method responsible for returning the neighbour of a cell a move leads to
+     * @param cell          The index of the cell
+     * @param code          The index of the move in {@link RouteSnapshot#MOVES}
+     * @param width         The width of the maze
+     * @param cell_count    The number of cells of the maze
+     * @return              the index of the neighbour, or -1 if the move leaves the maze
+     */
+    private static int neighbour(int cell, int code, int width, int cell_count) {
+        switch (code) {
+            case 0:
+                return cell >= width ? cell - width : -1;
+            case 1:
+                return cell + width < cell_count ? cell + width : -1;
+            case 2:
+                return cell % width != 0 ? cell - 1 : -1;
+            default:
+                return cell % width != width - 1 ? cell + 1 : -1;
+        }
+    }
+
+    /**
+     * A method responsible for verifying that the whole state has been read
+     * @throws InvalidMazeException when bytes are left over
+     */
+    void finish() {
+        if (in.hasRemaining()) {
+            throw invalid();
+        }
+    }
+
+    /**
+     * A method responsible for creating the exception reporting an invalid state
+     * @return      the exception
+     */
+    private static InvalidMazeException invalid() {
+        return new InvalidMazeException("\nRoute Invalid!");
+    }
+}
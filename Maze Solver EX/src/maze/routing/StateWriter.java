@@ -0,0 +1,164 @@
+package maze.routing;
+
+import java.util.Arrays;
+
+
+/**
+ * Class providing the writing of the search state of an engine into a snapshot, see {@link SearchEngine#save(StateWriter)}.
+ * Everything is written big-endian into a growable array of bytes, which {@link RouteSnapshot} deflates.
+ * The values an engine keeps for every cell are only written for the cells of a set, most often its visited cells,
+ * and parents which are neighbours take 2 bits each, in the order of {@link RouteSnapshot#MOVES}
+ */
+class StateWriter {
+
+    /**
+     * Preserving the bytes written and their number
+     */
+    private byte[] bytes = new byte[256];
+    private int size;
+
+    /**
+     * A method responsible for making room for more bytes
+     * @param count     The number of bytes about to be written
+     */
+    private void ensure(int count) {
+        if (size + count > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(size + count, bytes.length << 1));
+        }
+    }
+
+    /**
+     * A method responsible for writing a byte
+     * @param value     The byte
+     */
+    void put(byte value) {
+        ensure(1);
+        bytes[size++] = value;
+    }
+
+    /**
+     * A method responsible for writing an int, big-endian
+     * @param value     The int
+     */
+    void putInt(int value) {
+        ensure(4);
+        bytes[size++] = (byte) (value >>> 24);
+        bytes[size++] = (byte) (value >>> 16);
+        bytes[size++] = (byte) (value >>> 8);
+        bytes[size++] = (byte) value;
+    }
+
+    /**
+     * A method responsible for writing a boolean as a byte
+     * @param value     The boolean
+     */
+    void putBoolean(boolean value) {
+        put((byte) (value ? 1 : 0));
+    }
+
+    /**
+     * A method responsible for writing a list of cells, its length first
+     * @param cells     The indices of the cells, in order
+     */
+    void putCells(int[] cells) {
+        putInt(cells.length);
+        for (int cell : cells) {
+            putInt(cell);
+        }
+    }
+
+    /**
+     * A method responsible for writing a set of cells as a bitmap
+     * @param set           The set
+     * @param cell_count    The number of cells the set may hold
+     */
+    void putSet(CellSet set, int cell_count) {
+        byte[] bitmap = set.toBytes(cell_count);
+        ensure(bitmap.length);
+        System.arraycopy(bitmap, 0, bytes, size, bitmap.length);
+        size += bitmap.length;
+    }
+
+    /**
+     * A method responsible for writing one int for every cell of a set, in increasing order of cell index
+     * @param values    The values of every cell
+     * @param set       The cells whose values are written
+     */
+    void putInts(int[] values, CellSet set) {
+        for (int cell = set.next(0); cell != -1; cell = set.next(cell + 1)) {
+            putInt(values[cell]);
+        }
+    }
+
+    /**
+     * A method responsible for writing one byte for every cell of a set, in increasing order of cell index
+     * @param values    The values of every cell
+     * @param set       The cells whose values are written
+     */
+    void putBytes(byte[] values, CellSet set) {
+        for (int cell = set.next(0); cell != -1; cell = set.next(cell + 1)) {
+            put(values[cell]);
+        }
+    }
+
+    /**
+     * A method responsible for writing the parent of every cell of a set but the root, as the 2-bit code of the move
+     * leading from the cell to its parent, four codes per byte
+     * @param parent    The parent of every cell, which has to be a neighbour for every cell of the set but the root
+     * @param set       The cells whose parents are written
+     * @param root      The cell which is its own parent
+     * @param width     The width of the maze
+     * @throws IllegalStateException when a parent is not a neighbour of its cell
+     */
+    void putParents(int[] parent, CellSet set, int root, int width) {
+        int packed = 0;
+        int count = 0;
+        for (int cell = set.next(0); cell != -1; cell = set.next(cell + 1)) {
+            if (cell == root) {
+                continue;
+            }
+            packed |= moveCode(cell, parent[cell], width) << (count << 1);
+            if (++count == 4) {
+                put((byte) packed);
+                packed = 0;
+                count = 0;
+            }
+        }
+        if (count > 0) {
+            put((byte) packed);
+        }
+    }
+
+    /**
+     * A method responsible for returning the bytes written so far
+     * @return      a copy of the bytes
+     */
+    byte[] toBytes() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    /**
+     * A method responsible for returning the 2-bit code of the move from a cell to a neighbour
+     * @param from      The index of the cell
+     * @param to        The index of the neighbour
+     * @param width     The width of the maze
+     * @throws IllegalStateException when the cells are not neighbours
+     * @return          the index of the direction in {@link RouteSnapshot#MOVES}
+     */
+    private static int moveCode(int from, int to, int width) {
+        //the rows are tested first, so a maze one cell wide still moves north and south
+        if (to == from - width) {
+            return 0;
+        }
+        if (to == from + width) {
+            return 1;
+        }
+        if (to == from - 1) {
+            return 2;
+        }
+        if (to == from + 1) {
+            return 3;
+        }
+        throw new IllegalStateException("The parent of a cell is not one of its neighbours!");
+    }
+}
@@ -0,0 +1,555 @@
+package maze.visualisation;
+
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+import maze.Maze;
+import maze.routing.RouteFinder;
+
+import java.util.Arrays;
+
+
+/**
+ * A Class responsible for drawing a maze and the state of its route finder onto a canvas.
+ * Only the cells inside the viewport are drawn, so a frame costs as much as the canvas has pixels, whatever the size
+ * of the maze. The view is dragged with the mouse, zoomed with the scroll wheel and fitted back by a double click.
+ * The route finder is only read while holding its lock, so it may be stepped by another thread, see {@link SolverService}
+ */
+public class MazeCanvas extends Canvas {
+
+    /**
+     * The kinds of tiles, the first four being the cell codes of the maze
+     */
+    private static final int ROUTE = 4;
+    private static final int EXIT = 5;
+    private static final int VISITED = 6;
+    private static final int ENTRANCE = 7;
+    private static final int FILLED = 8;
+
+    /**
+     * The colour of every kind of tile
+     */
+    private static final Color[] COLOURS = {Color.LIGHTSALMON, Color.LAVENDERBLUSH, Color.TAN, Color.LIGHTSKYBLUE,
+            Color.RED, Color.LIGHTGREEN, Color.GREY, Color.CORAL, Color.THISTLE};
+
+    /**
+     * The colour of every kind of tile as an opaque argb value, used when the tiles are sampled per pixel
+     */
+    private static final int[] ARGB = new int[COLOURS.length];
+    static {
+        for (int i = 0; i < COLOURS.length; i++) {
+            ARGB[i] = 0xFF000000 | ((int) Math.round(COLOURS[i].getRed() * 255) << 16)
+                    | ((int) Math.round(COLOURS[i].getGreen() * 255) << 8) | (int) Math.round(COLOURS[i].getBlue() * 255);
+        }
+    }
+
+    /**
+     * The colour of the margins holding the row/column indicators, the same as the background of the scene
+     */
+    private static final Color MARGIN_COLOUR = Color.rgb(50, 50, 50);
+
+    /**
+     * The width of the margins holding the row/column indicators
+     */
+    private static final double MARGIN = 28;
+
+    /**
+     * The smallest tile drawn as a rectangle, smaller tiles are sampled per pixel instead
+     */
+    private static final double MIN_RECT_SIZE = 4;
+
+    /**
+     * The largest tile size the view can be zoomed to
+     */
+    private static final double MAX_TILE_SIZE = 64;
+
+    /**
+     * The zoom factor of one notch of the scroll wheel
+     */
+    private static final double ZOOM_STEP = 1.25;
+
+    /**
+     * The size of the longer side of the minimap, and its distance to the sides of the canvas
+     */
+    private static final double MINIMAP_SIZE = 140;
+    private static final double MINIMAP_PADDING = 10;
+
+    /**
+     * Preserving the maze displayed and its route finder
+     */
+    private Maze maze;
+    private RouteFinder finder;
+
+    /**
+     * Preserving the mipmap pyramid of the maze, used when a pixel covers many cells
+     */
+    private MazePyramid pyramid;
+
+    /**
+     * Preserving the size of a tile in pixels, and where the top-left corner of the maze lies on the canvas
+     */
+    private double tile_size;
+    private double offset_x;
+    private double offset_y;
+
+    /**
+     * Preserving whether the view follows the size of the canvas, until the user pans or zooms it
+     */
+    private boolean fitted = true;
+
+    /**
+     * Preserving the image the tiles are sampled into, and its pixels
+     */
+    private WritableImage image;
+    private int[] pixels;
+
+    /**
+     * Preserving the image of the minimap, its pixels and where it was last drawn
+     */
+    private WritableImage minimap;
+    private int[] minimap_pixels;
+    private double minimap_x;
+    private double minimap_y;
+
+    /**
+     * Preserving whether the mouse is dragging the frame of the minimap rather than the maze
+     */
+    private boolean on_minimap;
+
+    /**
+     * Preserving the last position of the mouse while dragging
+     */
+    private double drag_x;
+    private double drag_y;
+
+    /**
+     * Basic constructor, installing the mouse handlers for panning and zooming
+     */
+    public MazeCanvas() {
+        setOnMousePressed(e -> {
+            on_minimap = centerOnMinimap(e.getX(), e.getY());
+            drag_x = e.getX();
+            drag_y = e.getY();
+        });
+        setOnMouseDragged(e -> {
+            if (on_minimap) {
+                centerOnMinimap(e.getX(), e.getY());
+            } else {
+                pan(e.getX() - drag_x, e.getY() - drag_y);
+            }
+            drag_x = e.getX();
+            drag_y = e.getY();
+        });
+        setOnScroll(e -> {
+            if (e.getDeltaY() != 0) {
+                zoom(e.getDeltaY() > 0 ? ZOOM_STEP : 1 / ZOOM_STEP, e.getX(), e.getY());
+            }
+        });
+        setOnMouseClicked(e -> {
+            if (e.getClickCount() == 2) {
+                fitToView();
+            }
+        });
+    }
+
+    /**
+     * A method responsible for displaying a new maze, fitted into the canvas
+     * @param m     The maze to be displayed
+     * @param f     The route finder solving the maze
+     */
+    public void setMaze(Maze m, RouteFinder f) {
+        maze = m;
+        finder = f;
+        synchronized (f) {
+            pyramid = new MazePyramid(m, f);
+        }
+        fitToView();
+    }
+
+    /**
+     * A method responsible for resizing the canvas and redrawing it, the view is fitted again unless it was moved
+     * @param width     The new width of the canvas
+     * @param height    The new height of the canvas
+     */
+    public void setViewSize(double width, double height) {
+        setWidth(Math.max(1, width));
+        setHeight(Math.max(1, height));
+        if (fitted) {
+            fitToView();
+        } else {
+            redraw();
+        }
+    }
+
+    /**
+     * A method responsible for zooming and centering the view so that the whole maze fits into the canvas
+     */
+    public void fitToView() {
+        fitted = true;
+        double room_x = getWidth() - MARGIN;
+        double room_y = getHeight() - MARGIN;
+        if (maze == null || room_x <= 0 || room_y <= 0) {
+            return;     // nothing to fit, or not laid out yet
+        }
+        tile_size = Math.min(MAX_TILE_SIZE, Math.min(room_x / maze.getWidth(), room_y / maze.getHeight()));
+        if (tile_size >= MIN_RECT_SIZE) {
+            tile_size = Math.floor(tile_size);      // whole pixels keep the gaps between tiles even
+        }
+        offset_x = MARGIN + (room_x - maze.getWidth() * tile_size) / 2;
+        offset_y = (room_y - maze.getHeight() * tile_size) / 2;
+        redraw();
+    }
+
+    /**
+     * A method responsible for moving the view
+     * @param dx    The horizontal distance in pixels
+     * @param dy    The vertical distance in pixels
+     */
+    public void pan(double dx, double dy) {
+        fitted = false;
+        offset_x += dx;
+        offset_y += dy;
+        redraw();
+    }
+
+    /**
+     * A method responsible for zooming the view, keeping the given point of the canvas over the same spot of the maze
+     * @param factor    The zoom factor, greater than one to zoom in
+     * @param x         The horizontal position of the fixed point
+     * @param y         The vertical position of the fixed point
+     */
+    public void zoom(double factor, double x, double y) {
+        if (maze == null || tile_size <= 0) {
+            return;
+        }
+        // the maze can be zoomed out to a quarter of the canvas at most
+        double min_size = Math.min(MIN_RECT_SIZE,
+                Math.min(getWidth() / maze.getWidth(), getHeight() / maze.getHeight()) / 4);
+        double new_size = Math.max(min_size, Math.min(MAX_TILE_SIZE, tile_size * factor));
+        fitted = false;
+        offset_x = x - (x - offset_x) * new_size / tile_size;
+        offset_y = y - (y - offset_y) * new_size / tile_size;
+        tile_size = new_size;
+        redraw();
+    }
+
+    /**
+     * A method responsible for redrawing the tiles changed since the last frame, as reported by the route finder.
+     * Large tiles are redrawn one by one, unless more have changed than are in view; small ones share pixels,
+     * so the whole viewport is sampled again
+     */
+    public void refresh() {
+        if (maze == null) {
+            return;
+        }
+        synchronized (finder) {
+            int[] changed = finder.pollChangedCells();
+            pyramid.update(changed);
+            if (tile_size <= 0) {
+                return;
+            }
+            double tiles_in_view = (getWidth() / tile_size + 1) * (getHeight() / tile_size + 1);
+            if (tile_size < MIN_RECT_SIZE || changed.length > tiles_in_view) {
+                redraw();
+                return;
+            }
+            GraphicsContext gc = getGraphicsContext2D();
+            int width = maze.getWidth();
+            for (int index : changed) {
+                drawTile(gc, index / width, index % width);
+            }
+            drawIndicators(gc);      // tiles partly under the margins are covered again
+            drawMinimap(gc);
+        }
+    }
+
+    /**
+     * A method responsible for redrawing the whole viewport
+     */
+    public void redraw() {
+        GraphicsContext gc = getGraphicsContext2D();
+        gc.clearRect(0, 0, getWidth(), getHeight());
+        if (maze == null || tile_size <= 0 || getWidth() < 1 || getHeight() < 1) {
+            return;
+        }
+        synchronized (finder) {
+            if (tile_size >= MIN_RECT_SIZE) {
+                drawTiles(gc);
+            } else {
+                drawSampled(gc);
+            }
+            drawIndicators(gc);
+            drawMinimap(gc);
+        }
+    }
+
+    /**
+     * A method responsible for drawing the visible tiles as rectangles
+     * @param gc    The graphics context of the canvas
+     */
+    private void drawTiles(GraphicsContext gc) {
+        int first_col = Math.max(0, (int) Math.floor(-offset_x / tile_size));
+        int end_col = Math.min(maze.getWidth(), (int) Math.ceil((getWidth() - offset_x) / tile_size));
+        int first_row = Math.max(0, (int) Math.floor(-offset_y / tile_size));
+        int end_row = Math.min(maze.getHeight(), (int) Math.ceil((getHeight() - offset_y) / tile_size));
+        for (int row = first_row; row < end_row; row++) {
+            for (int col = first_col; col < end_col; col++) {
+                drawTile(gc, row, col);
+            }
+        }
+    }
+
+    /**
+     * A method responsible for drawing one tile as a rectangle, leaving a gap between neighbouring tiles
+     * @param gc    The graphics context of the canvas
+     * @param row   The row of the tile
+     * @param col   The column of the tile
+     */
+    private void drawTile(GraphicsContext gc, int row, int col) {
+        double x = offset_x + col * tile_size;
+        double y = offset_y + row * tile_size;
+        if (x + tile_size <= 0 || y + tile_size <= 0 || x >= getWidth() || y >= getHeight()) {
+            return;     // outside of the viewport
+        }
+        double gap = (tile_size >= 8) ? 1.5 : 1;
+        gc.setFill(COLOURS[kindOf(maze.toIndex(row, col))]);
+        gc.fillRect(x, y, tile_size - gap, tile_size - gap);
+    }
+
+    /**
+     * A method responsible for drawing tiles smaller than a few pixels, every pixel of the viewport
+     * taking the colour of what lies under its centre
+     * @param gc    The graphics context of the canvas
+     */
+    private void drawSampled(GraphicsContext gc) {
+        int width = (int) getWidth();
+        int height = (int) getHeight();
+        if (image == null || image.getWidth() != width || image.getHeight() != height) {
+            image = new WritableImage(width, height);
+            pixels = new int[width * height];
+        }
+        sample(pixels, width, height, offset_x, offset_y, tile_size);
+        image.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbPreInstance(), pixels, 0, width);
+        gc.drawImage(image, 0, 0);
+    }
+
+    /**
+     * A method responsible for sampling the maze into pixels. Where a pixel covers a single cell or a few of them,
+     * it takes the colour of the cell under its centre; further away, it takes the blended colour of the block of
+     * the pyramid under its centre, so that walls, visited cells and the route keep showing in the right proportions
+     * @param out           The pixels, row by row, transparent outside of the maze
+     * @param width         The number of pixels per row
+     * @param height        The number of rows
+     * @param origin_x      Where the left side of the maze lies, in pixels
+     * @param origin_y      Where the top side of the maze lies, in pixels
+     * @param size          The size of a tile in pixels
+     */
+    private void sample(int[] out, int width, int height, double origin_x, double origin_y, double size) {
+        // the finest level whose blocks are no larger than a pixel, cells are read directly below the pyramid
+        int level = 0;
+        while (level < MazePyramid.BASE_LEVEL + pyramid.getLevelCount() - 1 && (2 << level) * size <= 1) {
+            level++;
+        }
+        if (level < MazePyramid.BASE_LEVEL) {
+            level = 0;
+        }
+
+        // the column under every pixel of a row is the same for every row
+        int[] columns = new int[width];
+        for (int x = 0; x < width; x++) {
+            double col = (x + 0.5 - origin_x) / size;
+            columns[x] = (col < 0 || col >= maze.getWidth()) ? -1 : ((int) col) >>> level;
+        }
+        for (int y = 0; y < height; y++) {
+            double row = (y + 0.5 - origin_y) / size;
+            int base = y * width;
+            if (row < 0 || row >= maze.getHeight()) {
+                Arrays.fill(out, base, base + width, 0);
+                continue;
+            }
+            if (level == 0) {
+                int row_start = maze.toIndex((int) row, 0);
+                for (int x = 0; x < width; x++) {
+                    out[base + x] = (columns[x] == -1) ? 0 : ARGB[kindOf(row_start + columns[x])];
+                }
+            } else {
+                int row_start = (((int) row) >>> level) * pyramid.getWidth(level);
+                for (int x = 0; x < width; x++) {
+                    out[base + x] = (columns[x] == -1) ? 0 : blend(level, row_start + columns[x]);
+                }
+            }
+        }
+    }
+
+    /**
+     * A method responsible for blending the colour of a block of the pyramid, a block crossed by the route
+     * being drawn in the colour of the route
+     * @param level     The level of the block
+     * @param block     The index of the block
+     * @return          the opaque argb colour of the block
+     */
+    private int blend(int level, int block) {
+        if (pyramid.getShare(level, MazePyramid.ROUTE, block) > 0) {
+            return ARGB[ROUTE];
+        }
+        int walls = pyramid.getShare(level, MazePyramid.WALLS, block);
+        int visited = pyramid.getShare(level, MazePyramid.VISITED, block);
+        int filled = pyramid.getShare(level, MazePyramid.FILLED, block);
+        int corridors = Math.max(0, 255 - walls - visited - filled);
+        int argb = 0xFF000000;
+        for (int shift = 0; shift <= 16; shift += 8) {
+            int channel = walls * ((ARGB[Maze.WALL] >>> shift) & 0xFF) + visited * ((ARGB[VISITED] >>> shift) & 0xFF)
+                    + filled * ((ARGB[FILLED] >>> shift) & 0xFF) + corridors * ((ARGB[Maze.CORRIDOR] >>> shift) & 0xFF);
+            argb |= Math.min(255, channel / 255) << shift;
+        }
+        return argb;
+    }
+
+    /**
+     * A method responsible for drawing the minimap in the top-right corner while the maze does not fit the view,
+     * with a frame around the part of the maze in view
+     * @param gc    The graphics context of the canvas
+     */
+    private void drawMinimap(GraphicsContext gc) {
+        double maze_width = maze.getWidth() * tile_size;
+        double maze_height = maze.getHeight() * tile_size;
+        if (fitted || (offset_x >= 0 && offset_y >= 0 && offset_x + maze_width <= getWidth()
+                && offset_y + maze_height <= getHeight())) {
+            return;     // the whole maze is in view already
+        }
+        double scale = MINIMAP_SIZE / Math.max(maze.getWidth(), maze.getHeight());
+        int width = Math.max(1, (int) Math.round(maze.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(maze.getHeight() * scale));
+        if (minimap == null || minimap.getWidth() != width || minimap.getHeight() != height) {
+            minimap = new WritableImage(width, height);
+            minimap_pixels = new int[width * height];
+        }
+        sample(minimap_pixels, width, height, 0, 0, scale);
+        minimap.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbPreInstance(), minimap_pixels, 0, width);
+
+        minimap_x = getWidth() - width - MINIMAP_PADDING;
+        minimap_y = MINIMAP_PADDING;
+        gc.setFill(MARGIN_COLOUR);
+        gc.fillRect(minimap_x - 2, minimap_y - 2, width + 4, height + 4);
+        gc.drawImage(minimap, minimap_x, minimap_y);
+
+        // the part of the maze in view
+        double ratio = scale / tile_size;
+        double left = Math.max(0, -offset_x * ratio);
+        double top = Math.max(0, -offset_y * ratio);
+        double right = Math.min(width, (getWidth() - offset_x) * ratio);
+        double bottom = Math.min(height, (getHeight() - offset_y) * ratio);
+        if (right > left && bottom > top) {
+            gc.setStroke(Color.YELLOW);
+            gc.setLineWidth(1);
+            gc.strokeRect(minimap_x + left, minimap_y + top, right - left, bottom - top);
+        }
+    }
+
+    /**
+     * A method responsible for centering the view on the spot of the maze under a point of the minimap
+     * @param x     The horizontal position on the canvas
+     * @param y     The vertical position on the canvas
+     * @return      false if the point is not on the minimap
+     */
+    private boolean centerOnMinimap(double x, double y) {
+        if (fitted || maze == null) {
+            return false;
+        }
+        double scale = MINIMAP_SIZE / Math.max(maze.getWidth(), maze.getHeight());
+        double col = (x - minimap_x) / scale;
+        double row = (y - minimap_y) / scale;
+        if (col < 0 || row < 0 || col > maze.getWidth() || row > maze.getHeight()) {
+            return false;
+        }
+        offset_x = getWidth() / 2 - col * tile_size;
+        offset_y = getHeight() / 2 - row * tile_size;
+        redraw();
+        return true;
+    }
+
+    /**
+     * A method responsible for drawing the row/column indicators in the margins on the left and at the bottom,
+     * as many as fit without overlapping
+     * @param gc    The graphics context of the canvas
+     */
+    private void drawIndicators(GraphicsContext gc) {
+        double bottom = getHeight() - MARGIN;
+        gc.setFill(MARGIN_COLOUR);
+        gc.fillRect(0, 0, MARGIN, getHeight());
+        gc.fillRect(0, bottom, getWidth(), MARGIN);
+
+        gc.setFill(Color.LAVENDERBLUSH);
+        gc.setFont(Font.font("Helvetica", 11));
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTextBaseline(VPos.CENTER);
+
+        int row_step = indicatorStep(14);
+        int col_step = indicatorStep(7 * String.valueOf(maze.getWidth()).length() + 6);
+        int first_row = Math.max(0, (int) Math.floor(-offset_y / tile_size));
+        int end_row = Math.min(maze.getHeight(), (int) Math.ceil((bottom - offset_y) / tile_size));
+        for (int row = first_row - first_row % row_step; row < end_row; row += row_step) {
+            double y = offset_y + (row + 0.5) * tile_size;
+            if (y >= 0 && y < bottom) {
+                gc.fillText(String.valueOf(maze.getHeight() - row - 1), MARGIN / 2, y);
+            }
+        }
+        int first_col = Math.max(0, (int) Math.floor((MARGIN - offset_x) / tile_size));
+        int end_col = Math.min(maze.getWidth(), (int) Math.ceil((getWidth() - offset_x) / tile_size));
+        for (int col = first_col - first_col % col_step; col < end_col; col += col_step) {
+            double x = offset_x + (col + 0.5) * tile_size;
+            if (x >= MARGIN && x < getWidth()) {
+                gc.fillText(String.valueOf(col), x, bottom + MARGIN / 2);
+            }
+        }
+    }
+
+    /**
+     * A method responsible for choosing how many tiles lie between two indicators, a 1, 2 or 5 times a power of ten
+     * @param room      The room an indicator needs in pixels
+     * @return          the number of tiles between two indicators
+     */
+    private int indicatorStep(double room) {
+        int step = 1;
+        int[] factors = {2, 5, 10};
+        for (int scale = 1; step * tile_size < room && step < Integer.MAX_VALUE / 10; scale *= 10) {
+            for (int factor : factors) {
+                step = scale * factor;
+                if (step * tile_size >= room) {
+                    break;
+                }
+            }
+        }
+        return step;
+    }
+
+    /**
+     * A method responsible for choosing the kind of a tile from the state of the route finder
+     * @param index     The index of the cell
+     * @return          the kind of the tile, indexing {@link #COLOURS}
+     */
+    private int kindOf(int index) {
+        boolean visited = finder.isVisited(index);
+        if (visited && finder.isOnRoute(index)) {
+            return ROUTE;       // current route, entrance included
+        }
+        if (index == maze.getExitIndex()) {
+            return EXIT;
+        }
+        if (visited) {
+            return VISITED;     // past route
+        }
+        if (index == maze.getEntranceIndex()) {
+            return ENTRANCE;    // entrance not reached yet
+        }
+        if (maze.isFilled(index)) {
+            return FILLED;      // dead end filled before solving
+        }
+        return maze.getCell(index);     // wall, corridor, mud or water
+    }
+}
@@ -0,0 +1,227 @@
+package maze.visualisation;
+
+import maze.Maze;
+import maze.routing.RouteFinder;
+
+import java.util.Arrays;
+
+
+/**
+ * Class providing a mipmap pyramid of a maze and the state of its route finder, used to draw the maze when a pixel
+ * covers many cells. Level n splits the maze into blocks of 2^n x 2^n cells and keeps, for every block, the share of
+ * walls, of visited cells, of cells on the route and of filled dead ends as a byte from 0 to 255. Level {@link #BASE_LEVEL} is counted
+ * from the cells, every level above averages the four blocks below it. The steps only change a few cells, so the
+ * pyramid is updated from the changed cells upwards instead of being rebuilt
+ */
+class MazePyramid {
+
+    /**
+     * The channels kept for every block
+     */
+    static final int WALLS = 0;
+    static final int VISITED = 1;
+    static final int ROUTE = 2;
+    static final int FILLED = 3;
+
+    /**
+     * The lowest level kept, finer levels are read from the maze directly
+     */
+    static final int BASE_LEVEL = 2;
+
+    /**
+     * Preserving the maze and its route finder
+     */
+    private final Maze maze;
+    private final RouteFinder finder;
+
+    /**
+     * Preserving the number of blocks per row and per column of every level, from {@link #BASE_LEVEL} upwards
+     */
+    private final int[] widths;
+    private final int[] heights;
+
+    /**
+     * Preserving the shares of every level, indexed by level then channel then block
+     */
+    private final byte[][][] shares;
+
+    /**
+     * Basic constructor, building the whole pyramid
+     * @param m     The maze
+     * @param f     The route finder solving the maze
+     */
+    MazePyramid(Maze m, RouteFinder f) {
+        maze = m;
+        finder = f;
+
+        //levels are added until a single block covers the whole maze
+        int count = 1;
+        while (Math.max(m.getWidth(), m.getHeight()) > (1 << (BASE_LEVEL + count - 1))) {
+            count++;
+        }
+        widths = new int[count];
+        heights = new int[count];
+        shares = new byte[count][FILLED + 1][];
+        for (int i = 0; i < count; i++) {
+            int size = 1 << (BASE_LEVEL + i);
+            widths[i] = (m.getWidth() + size - 1) / size;
+            heights[i] = (m.getHeight() + size - 1) / size;
+            for (int channel = WALLS; channel <= FILLED; channel++) {
+                shares[i][channel] = new byte[widths[i] * heights[i]];
+            }
+        }
+
+        for (int block = 0; block < widths[0] * heights[0]; block++) {
+            countBase(block);
+        }
+        for (int i = 1; i < count; i++) {
+            for (int block = 0; block < widths[i] * heights[i]; block++) {
+                average(i, block);
+            }
+        }
+    }
+
+    /**
+     * A method responsible for updating the blocks holding the given cells, and every block above them
+     * @param changed   The indices of the changed cells, duplicates allowed
+     */
+    void update(int[] changed) {
+        if (changed.length == 0) {
+            return;
+        }
+        int[] blocks = new int[changed.length];
+        for (int i = 0; i < changed.length; i++) {
+            int row = changed[i] / maze.getWidth();
+            int col = changed[i] % maze.getWidth();
+            blocks[i] = (row >>> BASE_LEVEL) * widths[0] + (col >>> BASE_LEVEL);
+        }
+        int length = distinct(blocks, blocks.length);
+        for (int i = 0; i < length; i++) {
+            countBase(blocks[i]);
+        }
+
+        for (int level = 1; level < widths.length; level++) {
+            //the blocks above are found from the blocks below, each four of them sharing one
+            for (int i = 0; i < length; i++) {
+                int row = blocks[i] / widths[level - 1];
+                int col = blocks[i] % widths[level - 1];
+                blocks[i] = (row >>> 1) * widths[level] + (col >>> 1);
+            }
+            length = distinct(blocks, length);
+            for (int i = 0; i < length; i++) {
+                average(level, blocks[i]);
+            }
+        }
+    }
+
+    /**
+     * A method responsible for returning the number of levels kept
+     * @return      the number of levels, from {@link #BASE_LEVEL} upwards
+     */
+    int getLevelCount() {
+        return widths.length;
+    }
+
+    /**
+     * A method responsible for returning the number of blocks per row of a level
+     * @param level     The level, at least {@link #BASE_LEVEL}
+     * @return          the number of blocks per row
+     */
+    int getWidth(int level) {
+        return widths[level - BASE_LEVEL];
+    }
+
+    /**
+     * A method responsible for returning the share of a channel in a block
+     * @param level     The level, at least {@link #BASE_LEVEL}
+     * @param channel   {@link #WALLS}, {@link #VISITED}, {@link #ROUTE} or {@link #FILLED}
+     * @param block     The index of the block, row by row
+     * @return          the share from 0 to 255
+     */
+    int getShare(int level, int channel, int block) {
+        return shares[level - BASE_LEVEL][channel][block] & 0xFF;
+    }
+
+    /**
+     * A method responsible for counting the shares of a block of the base level from its cells
+     * @param block     The index of the block
+     */
+    private void countBase(int block) {
+        int size = 1 << BASE_LEVEL;
+        int first_row = (block / widths[0]) * size;
+        int first_col = (block % widths[0]) * size;
+        int end_row = Math.min(first_row + size, maze.getHeight());
+        int end_col = Math.min(first_col + size, maze.getWidth());
+        int walls = 0;
+        int visited = 0;
+        int route = 0;
+        int filled = 0;
+        for (int row = first_row; row < end_row; row++) {
+            for (int col = first_col; col < end_col; col++) {
+                int index = maze.toIndex(row, col);
+                if (maze.getCell(index) == Maze.WALL) {
+                    walls++;
+                } else if (maze.isFilled(index)) {
+                    filled++;
+                } else if (finder.isVisited(index)) {
+                    visited++;
+                    if (finder.isOnRoute(index)) {
+                        route++;
+                    }
+                }
+            }
+        }
+        //blocks on the edges may hold fewer cells
+        int cells = (end_row - first_row) * (end_col - first_col);
+        shares[0][WALLS][block] = (byte) (walls * 255 / cells);
+        shares[0][VISITED][block] = (byte) (visited * 255 / cells);
+        shares[0][ROUTE][block] = (byte) (route * 255 / cells);
+        shares[0][FILLED][block] = (byte) (filled * 255 / cells);
+    }
+
+    /**
+     * A method responsible for averaging the shares of a block from the blocks below it
+     * @param level     The index of the level in the pyramid, above the base level
+     * @param block     The index of the block
+     */
+    private void average(int level, int block) {
+        int row = (block / widths[level]) << 1;
+        int col = (block % widths[level]) << 1;
+        int below = widths[level - 1];
+        for (int channel = WALLS; channel <= FILLED; channel++) {
+            byte[] shares_below = shares[level - 1][channel];
+            int sum = 0;
+            int count = 0;
+            //blocks on the edges may have fewer blocks below them
+            for (int r = row; r < Math.min(row + 2, heights[level - 1]); r++) {
+                for (int c = col; c < Math.min(col + 2, below); c++) {
+                    sum += shares_below[r * below + c] & 0xFF;
+                    count++;
+                }
+            }
+            int share = sum / count;
+            //a route crossing the block must not fade away, however little of it there is
+            if (channel == ROUTE && sum > 0) {
+                share = Math.max(share, 1);
+            }
+            shares[level][channel][block] = (byte) share;
+        }
+    }
+
+    /**
+     * A method responsible for sorting the first elements of an array and removing their duplicates
+     * @param values    The array
+     * @param length    The number of elements to be considered
+     * @return          the number of distinct elements, now at the beginning of the array
+     */
+    private static int distinct(int[] values, int length) {
+        Arrays.sort(values, 0, length);
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            if (count == 0 || values[count - 1] != values[i]) {
+                values[count++] = values[i];
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,240 @@
+package maze.visualisation;
+
+import javafx.application.Platform;
+import maze.routing.RouteFinder;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * A Class responsible for stepping a route finder on a background thread, at a given number of steps per second or
+ * as fast as possible, so that the JavaFX application thread only has to draw. Every batch of steps holds the lock
+ * of the route finder, which is also held while the route finder is drawn, see {@link MazeCanvas}.
+ * The state is published through {@link Platform#runLater(Runnable)} at most once per frame: a frame is only requested
+ * when none is queued, and since a frame reads the route finder when it runs, it always shows the latest state
+ */
+public class SolverService {
+
+    /**
+     * The speed of running to the end, as fast as possible
+     */
+    public static final double UNLIMITED = Double.POSITIVE_INFINITY;
+
+    /**
+     * The shortest time between two frames, 60 frames per second
+     */
+    private static final long FRAME_NANOS = 1_000_000_000L / 60;
+
+    /**
+     * The longest time a batch of steps holds the lock of the route finder
+     */
+    private static final long BATCH_NANOS = 2_000_000L;
+
+    /**
+     * The states of the frame: none requested, requested but not started, being drawn
+     */
+    private static final int IDLE = 0;
+    private static final int QUEUED = 1;
+    private static final int DRAWING = 2;
+
+    /**
+     * Preserving the route finder and the code drawing a frame on the JavaFX application thread
+     */
+    private final RouteFinder finder;
+    private final Runnable frame;
+
+    /**
+     * Preserving the state of the frame
+     */
+    private final AtomicInteger frame_state = new AtomicInteger(IDLE);
+
+    /**
+     * Preserving whether the route finder has changed since the last frame started
+     */
+    private volatile boolean changed;
+
+    /**
+     * Preserving when the last frame was requested, only used by the background thread
+     */
+    private long last_frame;
+
+    /**
+     * Preserving the number of steps per second, and whether the background thread is to keep going
+     */
+    private volatile double speed;
+    private volatile boolean running;
+
+    /**
+     * Preserving the exception which stopped the background thread, null if none did
+     */
+    private volatile Exception failure;
+
+    /**
+     * Preserving the background thread, null while paused
+     */
+    private Thread worker;
+
+    /**
+     * Basic constructor
+     * @param f         The route finder to be stepped
+     * @param fr        The code drawing a frame, run on the JavaFX application thread
+     */
+    public SolverService(RouteFinder f, Runnable fr) {
+        finder = f;
+        frame = fr;
+    }
+
+    /**
+     * A method responsible for starting to step in the background, or only changing the speed if it already does
+     * @param steps_per_second  The number of steps per second, {@link #UNLIMITED} to run to the end
+     */
+    public synchronized void play(double steps_per_second) {
+        speed = steps_per_second;
+        if (running || failure != null) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "maze-solver");
+        worker.setDaemon(true);     // a running solver must not keep the application alive
+        worker.start();
+    }
+
+    /**
+     * A method responsible for changing the number of steps per second, whether running or not
+     * @param steps_per_second  The number of steps per second, {@link #UNLIMITED} to run to the end
+     */
+    public void setSpeed(double steps_per_second) {
+        speed = steps_per_second;
+    }
+
+    /**
+     * A method responsible for stopping the background thread, and waiting for its current batch of steps to end,
+     * so that the route finder can be used right after
+     */
+    public void pause() {
+        Thread stopped;
+        synchronized (this) {
+            running = false;
+            stopped = worker;
+            worker = null;
+        }
+        if (stopped == null || stopped == Thread.currentThread()) {
+            return;
+        }
+        stopped.interrupt();
+        boolean interrupted = false;
+        while (stopped.isAlive()) {
+            try {
+                stopped.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A method responsible for returning whether the background thread is stepping
+     * @return      true until paused, finished or failed
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * A method responsible for returning the exception which stopped the background thread
+     * @return      the exception thrown by a step, a {@link maze.routing.NoRouteFoundException} when the maze cannot
+     *              be solved or any other runtime failure, null if none was thrown
+     */
+    public Exception getFailure() {
+        return failure;
+    }
+
+    /**
+     * The body of the background thread: taking the steps due, then requesting a frame, until stopped
+     */
+    private void run() {
+        long next_due = System.nanoTime();
+        try {
+            while (running) {
+                double pace = speed;
+                long now = System.nanoTime();
+                long interval = 0;
+                long due = Long.MAX_VALUE;
+                if (pace != UNLIMITED) {
+                    interval = (long) Math.max(1, 1e9 / pace);
+                    if (now < next_due) {
+                        LockSupport.parkNanos(next_due - now);      // returns early when paused
+                        continue;
+                    }
+                    if (next_due < now - FRAME_NANOS) {
+                        next_due = now;     // the steps missed while stalled are dropped rather than rushed
+                    }
+                    due = (now - next_due) / interval + 1;
+                }
+
+                // the lock is not fair, so it is left to a frame being drawn rather than taken again at once
+                if (frame_state.get() == DRAWING) {
+                    LockSupport.parkNanos(BATCH_NANOS / 16);
+                    continue;
+                }
+
+                long done;
+                synchronized (finder) {
+                    if (pace == UNLIMITED) {
+                        // the clock is only read every 256 steps, then the lock is left for the frames
+                        long end = now + BATCH_NANOS;
+                        done = finder.stepUntil(f -> (f.getSteps() & 255) == 0 && System.nanoTime() >= end).getSteps();
+                    } else {
+                        done = finder.step((int) Math.min(due, Integer.MAX_VALUE)).getSteps();
+                    }
+                    if (finder.isFinished()) {
+                        running = false;
+                    }
+                }
+                next_due += done * interval;
+                requestFrame(false);
+            }
+        } catch (Exception e) {
+            failure = e;
+            running = false;
+        }
+        requestFrame(true);
+    }
+
+    /**
+     * A method responsible for requesting a frame, unless one is queued or the last one is too recent
+     * @param last      Whether this is the last frame of the run, which is requested however recent the last one is
+     */
+    private void requestFrame(boolean last) {
+        changed = true;
+        long now = System.nanoTime();
+        if (!last && now - last_frame < FRAME_NANOS) {
+            return;
+        }
+        if (frame_state.compareAndSet(IDLE, QUEUED)) {
+            last_frame = now;
+            Platform.runLater(this::drawFrame);
+        }
+    }
+
+    /**
+     * A method responsible for drawing a frame on the JavaFX application thread. A change made while it was being
+     * drawn may have had its own frame refused, so another frame follows in that case
+     */
+    private void drawFrame() {
+        frame_state.set(DRAWING);
+        changed = false;
+        try {
+            frame.run();
+        } finally {
+            frame_state.set(IDLE);
+        }
+        if (changed && frame_state.compareAndSet(IDLE, QUEUED)) {
+            Platform.runLater(this::drawFrame);
+        }
+    }
+}
@@ -14,13 +14,14 @@ public class FileLoadHelper {
      * {@link FileChooser}
      *
      * @param main_stage    {@link Stage} of the JavaFX App
-     * @param extFilter     {@link javafx.stage.FileChooser.ExtensionFilter} a filter restrict the type of the file which
-     *                                                                      is allowed to be read in
+     * @param extFilter     {@link javafx.stage.FileChooser.ExtensionFilter} filters restrict the type of the file which
+     *                                                                      is allowed to be read in, the first one is
+     *                                                                      selected by default
      * @return      the full path of the chosen directory
      */
-    public static String load(Stage main_stage, FileChooser.ExtensionFilter extFilter){
+    public static String load(Stage main_stage, FileChooser.ExtensionFilter... extFilter){
         FileChooser file_Chooser = new FileChooser();           // initialize a file chooser
-        file_Chooser.getExtensionFilters().add(extFilter);
+        file_Chooser.getExtensionFilters().addAll(extFilter);
         File file = file_Chooser.showOpenDialog(main_stage);     // show the dialog on screen
         if (file != null) {
             return file.getAbsolutePath();